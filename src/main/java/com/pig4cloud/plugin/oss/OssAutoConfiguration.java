@@ -18,14 +18,25 @@
 package com.pig4cloud.plugin.oss;
 
 import com.pig4cloud.plugin.oss.http.OssEndpoint;
+import com.pig4cloud.plugin.oss.interceptor.ObservationOssInterceptor;
+import com.pig4cloud.plugin.oss.interceptor.OssInterceptor;
+import com.pig4cloud.plugin.oss.interceptor.SlowOperationLogInterceptor;
+import com.pig4cloud.plugin.oss.pack.OssPackStore;
 import com.pig4cloud.plugin.oss.service.OssTemplate;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import java.util.stream.Collectors;
 
 /**
  * oss 自动配置类
@@ -34,20 +45,38 @@ import org.springframework.context.annotation.Configuration;
  * @author 858695266
  * @author L.cm
  */
-@AutoConfiguration
+@AutoConfiguration(
+		afterName = "org.springframework.boot.actuate.autoconfigure.observation.ObservationAutoConfiguration")
 @Configuration(proxyBeanMethods = false)
 @EnableConfigurationProperties({ OssProperties.class })
+@ImportRuntimeHints(OssRuntimeHints.class)
 public class OssAutoConfiguration {
 
 	/**
 	 * OSS操作模板
+	 * @param properties oss配置
+	 * @param interceptors oss操作拦截器
 	 * @return OSS操作模板
 	 */
 	@Bean
 	@ConditionalOnMissingBean(OssTemplate.class)
 	@ConditionalOnProperty(prefix = OssProperties.PREFIX, name = "enable", havingValue = "true", matchIfMissing = true)
-	public OssTemplate ossTemplate(OssProperties properties) {
-		return new OssTemplate(properties);
+	public OssTemplate ossTemplate(OssProperties properties, ObjectProvider<OssInterceptor> interceptors) {
+		OssTemplate template = new OssTemplate(properties);
+		template.setInterceptors(interceptors.orderedStream().collect(Collectors.toList()));
+		return template;
+	}
+
+	/**
+	 * OSS慢操作日志
+	 * @param properties oss配置
+	 * @return 慢操作日志拦截器
+	 */
+	@Bean
+	@ConditionalOnMissingBean(SlowOperationLogInterceptor.class)
+	@ConditionalOnProperty(prefix = OssProperties.PREFIX, name = "slow-log.enable", havingValue = "true")
+	public SlowOperationLogInterceptor slowOperationLogInterceptor(OssProperties properties) {
+		return new SlowOperationLogInterceptor(properties.getSlowLog());
 	}
 
 	/**
@@ -62,4 +91,61 @@ public class OssAutoConfiguration {
 		return new OssEndpoint(template);
 	}
 
+	/**
+	 * OSS连接预热
+	 * @param template oss操作模版
+	 * @param properties oss配置
+	 * @return 预热监听器
+	 */
+	@Bean
+	@ConditionalOnBean(OssTemplate.class)
+	@ConditionalOnProperty(prefix = OssProperties.PREFIX, name = "prewarm.enable", havingValue = "true")
+	public OssPrewarmListener ossPrewarmListener(OssTemplate template, OssProperties properties) {
+		return new OssPrewarmListener(template, properties);
+	}
+
+	/**
+	 * OSS本地对象索引同步
+	 * @param template oss操作模版
+	 * @return 索引同步监听器
+	 */
+	@Bean
+	@ConditionalOnBean(OssTemplate.class)
+	@ConditionalOnProperty(prefix = OssProperties.PREFIX, name = "index.enable", havingValue = "true")
+	public OssIndexSyncListener ossIndexSyncListener(OssTemplate template) {
+		return new OssIndexSyncListener(template);
+	}
+
+	/**
+	 * 小文件打包存储
+	 * @param template oss操作模版
+	 * @param properties oss配置
+	 * @return 打包存储
+	 */
+	@Bean
+	@ConditionalOnMissingBean(OssPackStore.class)
+	@ConditionalOnBean(OssTemplate.class)
+	@ConditionalOnProperty(prefix = OssProperties.PREFIX, name = "pack.enable", havingValue = "true")
+	public OssPackStore ossPackStore(OssTemplate template, OssProperties properties) {
+		return new OssPackStore(template, properties);
+	}
+
+	/**
+	 * OSS操作 Observation 上报，存在 ObservationRegistry 时生效
+	 */
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(ObservationRegistry.class)
+	@ConditionalOnBean(ObservationRegistry.class)
+	@ConditionalOnProperty(prefix = OssProperties.PREFIX, name = "observation.enable", havingValue = "true",
+			matchIfMissing = true)
+	static class OssObservationConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean(ObservationOssInterceptor.class)
+		public ObservationOssInterceptor observationOssInterceptor(ObservationRegistry observationRegistry) {
+			return new ObservationOssInterceptor(observationRegistry);
+		}
+
+	}
+
 }
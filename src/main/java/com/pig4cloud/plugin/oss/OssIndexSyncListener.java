@@ -0,0 +1,41 @@
+/*
+ *    Copyright (c) 2018-2025, lengleng All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * Neither the name of the pig4cloud.com developer nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ * Author: lengleng (wangiegie@gmail.com)
+ */
+
+package com.pig4cloud.plugin.oss;
+
+import com.pig4cloud.plugin.oss.service.OssTemplate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+
+/**
+ * 应用启动完成后开始本地对象索引的同步，延迟初始化的客户端不会在启动阶段被创建
+ *
+ * @author lengleng
+ * @date 2026/10/18
+ */
+@RequiredArgsConstructor
+public class OssIndexSyncListener implements ApplicationListener<ApplicationReadyEvent> {
+
+	private final OssTemplate ossTemplate;
+
+	@Override
+	public void onApplicationEvent(ApplicationReadyEvent event) {
+		ossTemplate.startIndexSync();
+	}
+
+}
@@ -0,0 +1,51 @@
+/*
+ *    Copyright (c) 2018-2025, lengleng All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * Neither the name of the pig4cloud.com developer nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ * Author: lengleng (wangiegie@gmail.com)
+ */
+
+package com.pig4cloud.plugin.oss;
+
+import com.pig4cloud.plugin.oss.service.OssTemplate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+
+/**
+ * 应用启动完成后在后台预热 oss 连接，不阻塞启动
+ *
+ * @author lengleng
+ * @date 2026/10/18
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class OssPrewarmListener implements ApplicationListener<ApplicationReadyEvent> {
+
+	private final OssTemplate ossTemplate;
+
+	private final OssProperties ossProperties;
+
+	@Override
+	public void onApplicationEvent(ApplicationReadyEvent event) {
+		Thread thread = new Thread(() -> {
+			long start = System.currentTimeMillis();
+			ossTemplate.warmUp(ossProperties.getPrewarm().getConnections());
+			log.debug("oss connections warmed up in {} ms", System.currentTimeMillis() - start);
+		}, "oss-prewarm");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+}
@@ -17,8 +17,16 @@
 
 package com.pig4cloud.plugin.oss;
 
+import com.pig4cloud.plugin.oss.interceptor.OssOperationType;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * oss 配置信息
@@ -88,4 +96,240 @@ public class OssProperties {
 	 */
 	private String bucketName;
 
+	/**
+	 * 是否延迟到首次使用时再创建 S3 客户端，默认为：false
+	 */
+	private boolean lazyInit = false;
+
+	/**
+	 * 连接预热配置
+	 */
+	private Prewarm prewarm = new Prewarm();
+
+	/**
+	 * 并发相同读请求合并配置
+	 */
+	private Coalesce coalesce = new Coalesce();
+
+	@Data
+	public static class Coalesce {
+
+		/**
+		 * 是否合并并发的相同 HEAD/GET 请求，默认为：false
+		 */
+		private boolean enable = false;
+
+		/**
+		 * GET 合并时内存缓冲的最大对象大小，超过该大小的对象各自单独下载
+		 */
+		private DataSize maxBufferSize = DataSize.ofMegabytes(8);
+
+	}
+
+	/**
+	 * 随机访问通道配置
+	 */
+	private Channel channel = new Channel();
+
+	/**
+	 * 本地对象索引配置
+	 */
+	private Index index = new Index();
+
+	/**
+	 * 小文件打包存储配置
+	 */
+	private Pack pack = new Pack();
+
+	/**
+	 * 慢操作日志配置
+	 */
+	private SlowLog slowLog = new SlowLog();
+
+	/**
+	 * 客户端限流配置
+	 */
+	private RateLimit rateLimit = new RateLimit();
+
+	@Data
+	public static class RateLimit {
+
+		/**
+		 * 是否开启客户端限流，默认为：false
+		 */
+		private boolean enable = false;
+
+		/**
+		 * 每个 bucket（或前缀）每秒最大请求数，小于等于 0 表示不限制
+		 */
+		private double requestsPerSecond = 0;
+
+		/**
+		 * 按 key 的前几级目录细分请求限流，0 表示按 bucket 限流
+		 */
+		private int prefixDepth = 0;
+
+		/**
+		 * 按前缀限流时最多保留的令牌桶数量，超出后淘汰最久未使用的前缀
+		 */
+		private int maxPrefixes = 10000;
+
+		/**
+		 * 上传带宽上限（每秒），为空表示不限制
+		 */
+		private DataSize uploadBytesPerSecond;
+
+		/**
+		 * 下载带宽上限（每秒），为空表示不限制
+		 */
+		private DataSize downloadBytesPerSecond;
+
+		/**
+		 * 是否开启自适应限流：收到 503 SlowDown 时自动降速，之后逐步恢复到 requestsPerSecond，需同时配置
+		 * requestsPerSecond
+		 */
+		private boolean adaptive = false;
+
+		/**
+		 * 自适应模式下收到 SlowDown 时的降速系数
+		 */
+		private double backoffFactor = 0.5;
+
+		/**
+		 * 自适应模式下每次恢复的间隔，每次恢复 requestsPerSecond 的 10%
+		 */
+		private Duration rampUpInterval = Duration.ofSeconds(1);
+
+	}
+
+	@Data
+	public static class Prewarm {
+
+		/**
+		 * 是否在应用启动完成后后台预热连接，默认为：false
+		 */
+		private boolean enable = false;
+
+		/**
+		 * 预热的并发连接数
+		 */
+		private int connections = 4;
+
+	}
+
+	@Data
+	public static class Index {
+
+		/**
+		 * 是否开启本地对象索引，默认为：false
+		 */
+		private boolean enable = false;
+
+		/**
+		 * 建立索引的 bucket，为空时使用默认的存储桶
+		 */
+		private List<String> buckets = new ArrayList<>();
+
+		/**
+		 * 全量重新同步的间隔
+		 */
+		private Duration resyncInterval = Duration.ofHours(1);
+
+	}
+
+	@Data
+	public static class Channel {
+
+		/**
+		 * 每次 Range 读取的块大小，必须大于 0，且与 maxReadAheadBlocks 的乘积不超过 2 GB
+		 */
+		private DataSize blockSize = DataSize.ofKilobytes(64);
+
+		/**
+		 * 每个通道缓存的块数量
+		 */
+		private int cacheBlocks = 32;
+
+		/**
+		 * 顺序读取时最大预读块数
+		 */
+		private int maxReadAheadBlocks = 16;
+
+	}
+
+	@Data
+	public static class Pack {
+
+		/**
+		 * 是否开启小文件打包存储，默认为：false
+		 */
+		private boolean enable = false;
+
+		/**
+		 * 存放 pack 的存储桶，为空时使用默认的存储桶
+		 */
+		private String bucketName;
+
+		/**
+		 * pack 对象的前缀
+		 */
+		private String prefix = "packs/";
+
+		/**
+		 * 单个 pack 的大小上限，达到后立即写入
+		 */
+		private DataSize maxPackSize = DataSize.ofMegabytes(64);
+
+		/**
+		 * 参与打包的对象大小上限，超过的对象直接写入存储桶
+		 */
+		private DataSize maxObjectSize = DataSize.ofKilobytes(64);
+
+		/**
+		 * 未满的批次最长等待时间
+		 */
+		private Duration flushInterval = Duration.ofSeconds(5);
+
+		/**
+		 * 压缩检查间隔
+		 */
+		private Duration compactionInterval = Duration.ofMinutes(10);
+
+		/**
+		 * 触发压缩的已删除数据比例
+		 */
+		private double compactionThreshold = 0.5;
+
+		/**
+		 * 压缩租约有效期，同一前缀只有持有租约的实例执行压缩，各实例均可写入
+		 */
+		private Duration lockLease = Duration.ofSeconds(30);
+
+		/**
+		 * 加载其他实例新生成的 pack 及续期租约的间隔，应小于 lockLease
+		 */
+		private Duration refreshInterval = Duration.ofSeconds(10);
+
+	}
+
+	@Data
+	public static class SlowLog {
+
+		/**
+		 * 是否开启慢操作日志，默认为：false
+		 */
+		private boolean enable = false;
+
+		/**
+		 * 默认慢操作阈值
+		 */
+		private Duration threshold = Duration.ofSeconds(1);
+
+		/**
+		 * 按操作类型单独设置的阈值
+		 */
+		private Map<OssOperationType, Duration> thresholds = new EnumMap<>(OssOperationType.class);
+
+	}
+
 }
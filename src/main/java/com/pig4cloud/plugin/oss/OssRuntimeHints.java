@@ -0,0 +1,52 @@
+/*
+ *    Copyright (c) 2018-2025, lengleng All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * Neither the name of the pig4cloud.com developer nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ * Author: lengleng (wangiegie@gmail.com)
+ */
+
+package com.pig4cloud.plugin.oss;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * GraalVM native image 运行时提示
+ * <p>
+ * AWS SDK 通过类路径资源加载拦截器清单，并通过 ServiceLoader 反射创建 HTTP 客户端实现，需要显式声明。 HTTP
+ * 客户端实现为可选依赖，仅在类路径中存在时注册。
+ *
+ * @author lengleng
+ * @date 2026/10/18
+ */
+public class OssRuntimeHints implements RuntimeHintsRegistrar {
+
+	static final String[] RESOURCES = { "software/amazon/awssdk/global/handlers/execution.interceptors",
+			"software/amazon/awssdk/services/s3/execution.interceptors", "software/amazon/awssdk/global/partitions.json",
+			"META-INF/services/software.amazon.awssdk.http.SdkHttpService" };
+
+	static final String[] SERVICE_TYPES = { "software.amazon.awssdk.http.apache.ApacheSdkHttpService",
+			"software.amazon.awssdk.http.urlconnection.UrlConnectionSdkHttpService" };
+
+	@Override
+	public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+		for (String resource : RESOURCES) {
+			hints.resources().registerPattern(resource);
+		}
+		for (String type : SERVICE_TYPES) {
+			hints.reflection().registerTypeIfPresent(classLoader, type, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+		}
+	}
+
+}
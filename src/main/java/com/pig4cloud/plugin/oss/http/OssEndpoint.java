@@ -20,8 +20,12 @@ package com.pig4cloud.plugin.oss.http;
 import com.pig4cloud.plugin.oss.service.OssTemplate;
 import io.swagger.annotations.Api;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.Cleanup;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
@@ -31,6 +35,7 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import software.amazon.awssdk.services.s3.model.Bucket;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
 import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
 import software.amazon.awssdk.services.s3.model.S3Object;
 
@@ -150,6 +155,18 @@ public class OssEndpoint {
 		return responseBody;
 	}
 
+	@PostMapping("/object/urls/{bucketName}/{expires}")
+	public Map<String, Object> getObjectUrls(@PathVariable @NotBlank String bucketName,
+			@PathVariable @NotNull Integer expires,
+			@RequestBody @NotEmpty @Size(max = 1000) List<@NotBlank String> objectNames) {
+		Map<String, Object> responseBody = new HashMap<>(8);
+		// Batch Object info
+		responseBody.put("bucket", bucketName);
+		responseBody.put("urls", ossTemplate.getObjectURLs(bucketName, objectNames, expires));
+		responseBody.put("expires", expires);
+		return responseBody;
+	}
+
 	@GetMapping("/object/put/{bucketName}/{objectName}/{expires}")
 	public Map<String, Object> getPutObjectUrl(@PathVariable @NotBlank String bucketName,
 			@PathVariable @NotBlank String objectName, @PathVariable @NotNull Integer expires) {
@@ -168,4 +185,53 @@ public class OssEndpoint {
 		ossTemplate.removeObject(bucketName, objectName);
 	}
 
+	/**
+	 * Multipart Upload Endpoints
+	 */
+	@PostMapping("/multipart/{bucketName}/{objectName}")
+	public Map<String, Object> createMultipartUpload(@PathVariable @NotBlank String bucketName,
+			@PathVariable @NotBlank String objectName, @RequestParam(required = false) String contentType) {
+		Map<String, Object> responseBody = new HashMap<>(8);
+		responseBody.put("bucket", bucketName);
+		responseBody.put("object", objectName);
+		responseBody.put("uploadId", ossTemplate.createMultipartUpload(bucketName, objectName, contentType));
+		return responseBody;
+	}
+
+	@PostMapping("/multipart/{bucketName}/{objectName}/{uploadId}/parts/{expires}")
+	public Map<String, Object> getUploadPartUrls(@PathVariable @NotBlank String bucketName,
+			@PathVariable @NotBlank String objectName, @PathVariable @NotBlank String uploadId,
+			@PathVariable @NotNull Integer expires,
+			@RequestBody @NotEmpty @Size(max = 1000) List<@NotNull @Min(1) @Max(10000) Integer> partNumbers) {
+		Map<String, Object> responseBody = new HashMap<>(8);
+		responseBody.put("bucket", bucketName);
+		responseBody.put("object", objectName);
+		responseBody.put("uploadId", uploadId);
+		responseBody.put("urls",
+				ossTemplate.getUploadPartURLs(bucketName, objectName, uploadId, partNumbers, expires));
+		responseBody.put("expires", expires);
+		return responseBody;
+	}
+
+	@PostMapping("/multipart/{bucketName}/{objectName}/{uploadId}/complete")
+	public Map<String, Object> completeMultipartUpload(@PathVariable @NotBlank String bucketName,
+			@PathVariable @NotBlank String objectName, @PathVariable @NotBlank String uploadId,
+			@RequestBody @NotEmpty Map<Integer, String> partETags) {
+		CompleteMultipartUploadResponse response = ossTemplate.completeMultipartUpload(bucketName, objectName,
+				uploadId, partETags);
+
+		Map<String, Object> result = new HashMap<>(8);
+		result.put("key", objectName);
+		result.put("bucketName", bucketName);
+		result.put("eTag", response.eTag());
+		return result;
+	}
+
+	@ResponseStatus(HttpStatus.ACCEPTED)
+	@DeleteMapping("/multipart/{bucketName}/{objectName}/{uploadId}")
+	public void abortMultipartUpload(@PathVariable @NotBlank String bucketName,
+			@PathVariable @NotBlank String objectName, @PathVariable @NotBlank String uploadId) {
+		ossTemplate.abortMultipartUpload(bucketName, objectName, uploadId);
+	}
+
 }
@@ -0,0 +1,152 @@
+/*
+ *    Copyright (c) 2018-2025, lengleng All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * Neither the name of the pig4cloud.com developer nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ * Author: lengleng (wangiegie@gmail.com)
+ */
+
+package com.pig4cloud.plugin.oss.index;
+
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * 本地对象索引管理
+ * <p>
+ * 为配置的 bucket 维护 {@link OssObjectIndex}，调用 {@link #start()} 后在后台做首次全量同步，之后按固定间隔重新同步。
+ * 自动配置在应用启动完成（ApplicationReadyEvent）后才启动同步，延迟初始化的客户端不会在启动阶段被创建。
+ *
+ * @author lengleng
+ * @date 2026/10/18
+ */
+@Slf4j
+public class OssIndexManager implements AutoCloseable {
+
+	private final Map<String, OssObjectIndex> indexes = new ConcurrentHashMap<>();
+
+	private final Function<String, Iterable<S3Object>> lister;
+
+	private final ScheduledExecutorService scheduler;
+
+	private final Duration resyncInterval;
+
+	private final AtomicBoolean started = new AtomicBoolean();
+
+	/**
+	 * @param bucketNames 建立索引的 bucket
+	 * @param resyncInterval 全量同步间隔
+	 * @param lister bucket 全量列表
+	 */
+	public OssIndexManager(Collection<String> bucketNames, Duration resyncInterval,
+			Function<String, Iterable<S3Object>> lister) {
+		this.lister = lister;
+		this.resyncInterval = resyncInterval;
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "oss-index-sync");
+			thread.setDaemon(true);
+			return thread;
+		});
+		for (String bucketName : bucketNames) {
+			indexes.put(bucketName, new OssObjectIndex(bucketName));
+		}
+	}
+
+	/**
+	 * 开始首次全量同步及定时同步，重复调用无效
+	 */
+	public void start() {
+		if (!started.compareAndSet(false, true)) {
+			return;
+		}
+		long interval = resyncInterval.toMillis();
+		for (OssObjectIndex index : indexes.values()) {
+			scheduler.scheduleWithFixedDelay(() -> sync(index), 0, interval, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * 获取 bucket 的索引
+	 * @param bucketName bucket名称
+	 * @return 索引，未配置该 bucket 时为空
+	 */
+	public Optional<OssObjectIndex> getIndex(String bucketName) {
+		return Optional.ofNullable(indexes.get(bucketName));
+	}
+
+	/**
+	 * 是否为 bucket 建立了索引
+	 * @param bucketName bucket名称
+	 * @return 是否建立索引
+	 */
+	public boolean isIndexed(String bucketName) {
+		return indexes.containsKey(bucketName);
+	}
+
+	/**
+	 * 立即触发一次全量同步
+	 * @param bucketName bucket名称
+	 */
+	public void resync(String bucketName) {
+		getIndex(bucketName).ifPresent(index -> scheduler.execute(() -> sync(index)));
+	}
+
+	public void onPut(String bucketName, String objectName, long size, String eTag) {
+		OssObjectIndex index = indexes.get(bucketName);
+		if (index != null) {
+			index.put(objectName, size, eTag);
+		}
+	}
+
+	public void onRemove(String bucketName, String objectName) {
+		OssObjectIndex index = indexes.get(bucketName);
+		if (index != null) {
+			index.remove(objectName);
+		}
+	}
+
+	public void onRemoveBucket(String bucketName) {
+		OssObjectIndex index = indexes.get(bucketName);
+		if (index != null) {
+			index.clear();
+		}
+	}
+
+	private void sync(OssObjectIndex index) {
+		long start = System.currentTimeMillis();
+		try {
+			index.rebuild(lister.apply(index.getBucketName()));
+			log.debug("oss index of bucket {} synced, {} objects in {} ms", index.getBucketName(), index.count(null),
+					System.currentTimeMillis() - start);
+		}
+		catch (Exception e) {
+			log.warn("oss index of bucket {} sync failed: {}", index.getBucketName(), e.getMessage());
+		}
+	}
+
+	@Override
+	public void close() {
+		scheduler.shutdownNow();
+	}
+
+}
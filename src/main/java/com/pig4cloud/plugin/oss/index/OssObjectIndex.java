@@ -0,0 +1,320 @@
+/*
+ *    Copyright (c) 2018-2025, lengleng All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * Neither the name of the pig4cloud.com developer nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ * Author: lengleng (wangiegie@gmail.com)
+ */
+
+package com.pig4cloud.plugin.oss.index;
+
+import lombok.Getter;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * 单个 bucket 的本地对象索引
+ * <p>
+ * 按 key 有序存放对象的大小、修改时间与 eTag，前缀查询、计数和大小汇总均在本地完成。全量同步在现有索引上原地进行：
+ * 与列表结果一致的项只打上本次同步的标记，变化的项被替换，同步结束后移除列表中已不存在的项，不会构建第二份索引；
+ * 同步期间发生的写入会被记录，不会被旧的列表数据覆盖。
+ * <p>
+ * 索引使用有序跳表（{@link ConcurrentSkipListMap}）而不是前缀树：key 有序时任意前缀都对应一个连续区间，列举只需遍历
+ * 该区间，且支持无锁并发读。按目录（以 '/' 结尾的前缀）同时维护对象数量与总大小的汇总，写入和删除时更新 key 的每一级
+ * 目录，因此目录前缀的 {@link #count(String)} 与 {@link #size(String)} 为 O(1)；不以 '/' 结尾的任意前缀需遍历对应区间。
+ * <p>
+ * 内存占用：key 以完整字符串保存，不共享前缀。每个对象约占 key 长度加 200 字节（跳表节点约 40 字节，索引项约 32
+ * 字节，eTag 字符串约 70 字节，key 字符串头约 40 字节），每个目录的汇总约 100 字节加目录名长度。例如 1000 万个平均 key
+ * 长度 60 字节的对象约需 2.5 GB 堆内存，超大 bucket 应只索引需要的 bucket 并相应调整堆大小。
+ *
+ * @author lengleng
+ * @date 2026/10/18
+ */
+public class OssObjectIndex {
+
+	@Getter
+	private final String bucketName;
+
+	private volatile Snapshot current = new Snapshot();
+
+	/**
+	 * 当前（或最近一次）全量同步的标记，写入的项使用该标记，不会被同步结束时的清理移除
+	 */
+	private int syncGeneration;
+
+	/**
+	 * 全量同步期间被写入或删除的 key，未同步时为空
+	 */
+	private Set<String> touched;
+
+	/**
+	 * 是否已完成首次全量同步
+	 */
+	@Getter
+	private volatile boolean ready;
+
+	/**
+	 * 最近一次全量同步完成时间
+	 */
+	@Getter
+	private volatile Instant lastSyncTime;
+
+	public OssObjectIndex(String bucketName) {
+		this.bucketName = bucketName;
+	}
+
+	/**
+	 * 根据前缀列出对象
+	 * @param prefix 前缀
+	 * @return 对象列表，按 key 排序
+	 */
+	public List<S3Object> list(String prefix) {
+		List<S3Object> result = new ArrayList<>();
+		for (Map.Entry<String, Entry> e : current.range(prefix).entrySet()) {
+			Entry entry = e.getValue();
+			result.add(S3Object.builder().key(e.getKey()).size(entry.size)
+					.lastModified(Instant.ofEpochMilli(entry.lastModified)).eTag(entry.eTag).build());
+		}
+		return result;
+	}
+
+	/**
+	 * 统计前缀下的对象数量，目录前缀直接读取汇总值
+	 * @param prefix 前缀
+	 * @return 对象数量
+	 */
+	public long count(String prefix) {
+		Snapshot snapshot = current;
+		if (isDirectory(prefix)) {
+			return snapshot.stat(prefix).count();
+		}
+		return snapshot.range(prefix).size();
+	}
+
+	/**
+	 * 统计前缀下的对象总大小，目录前缀直接读取汇总值
+	 * @param prefix 前缀
+	 * @return 总字节数
+	 */
+	public long size(String prefix) {
+		Snapshot snapshot = current;
+		if (isDirectory(prefix)) {
+			return snapshot.stat(prefix).bytes();
+		}
+		long total = 0;
+		for (Entry entry : snapshot.range(prefix).values()) {
+			total += entry.size;
+		}
+		return total;
+	}
+
+	/**
+	 * 记录写入
+	 * @param key 对象 key
+	 * @param size 对象大小
+	 * @param eTag eTag
+	 */
+	public synchronized void put(String key, long size, String eTag) {
+		current.put(key, new Entry(size, System.currentTimeMillis(), eTag, syncGeneration));
+		if (touched != null) {
+			touched.add(key);
+		}
+	}
+
+	/**
+	 * 记录删除
+	 * @param key 对象 key
+	 */
+	public synchronized void remove(String key) {
+		current.remove(key);
+		if (touched != null) {
+			touched.add(key);
+		}
+	}
+
+	/**
+	 * 清空索引
+	 */
+	public synchronized void clear() {
+		current = new Snapshot();
+	}
+
+	/**
+	 * 用全量列表同步索引，期间仍可查询
+	 * @param listing bucket 全量对象列表
+	 */
+	public void rebuild(Iterable<S3Object> listing) {
+		int generation;
+		synchronized (this) {
+			generation = ++syncGeneration;
+			touched = new HashSet<>();
+		}
+		try {
+			for (S3Object object : listing) {
+				long size = object.size() != null ? object.size() : 0;
+				long lastModified = object.lastModified() != null ? object.lastModified().toEpochMilli() : 0;
+				synchronized (this) {
+					if (touched.contains(object.key())) {
+						continue;
+					}
+					Entry entry = current.get(object.key());
+					if (entry != null && entry.matches(size, lastModified, object.eTag())) {
+						entry.generation = generation;
+					}
+					else {
+						current.put(object.key(), new Entry(size, lastModified, object.eTag(), generation));
+					}
+				}
+			}
+			sweep(generation);
+			lastSyncTime = Instant.now();
+			ready = true;
+		}
+		finally {
+			synchronized (this) {
+				touched = null;
+			}
+		}
+	}
+
+	/**
+	 * 移除本次同步列表中不存在的项，逐项加锁，不长时间阻塞写入
+	 */
+	private void sweep(int generation) {
+		Snapshot snapshot = current;
+		for (Map.Entry<String, Entry> e : snapshot.objects.entrySet()) {
+			if (e.getValue().generation == generation) {
+				continue;
+			}
+			synchronized (this) {
+				Entry entry = snapshot.get(e.getKey());
+				if (snapshot == current && entry != null && entry.generation != generation
+						&& !touched.contains(e.getKey())) {
+					snapshot.remove(e.getKey());
+				}
+			}
+		}
+	}
+
+	private static boolean isDirectory(String prefix) {
+		return prefix == null || prefix.isEmpty() || prefix.charAt(prefix.length() - 1) == '/';
+	}
+
+	/**
+	 * 有序的对象表及按目录的汇总，清空时整体替换
+	 */
+	private static class Snapshot {
+
+		private static final Stat EMPTY = new Stat(0, 0);
+
+		private final ConcurrentSkipListMap<String, Entry> objects = new ConcurrentSkipListMap<>();
+
+		/**
+		 * 目录前缀到汇总值，根目录为空字符串，不含对象的目录会被移除
+		 */
+		private final ConcurrentHashMap<String, Stat> directories = new ConcurrentHashMap<>();
+
+		Entry get(String key) {
+			return objects.get(key);
+		}
+
+		void put(String key, Entry entry) {
+			Entry previous = objects.put(key, entry);
+			if (previous == null) {
+				aggregate(key, 1, entry.size);
+			}
+			else if (previous.size != entry.size) {
+				aggregate(key, 0, entry.size - previous.size);
+			}
+		}
+
+		void remove(String key) {
+			Entry previous = objects.remove(key);
+			if (previous != null) {
+				aggregate(key, -1, -previous.size);
+			}
+		}
+
+		Stat stat(String directory) {
+			return directories.getOrDefault(directory == null ? "" : directory, EMPTY);
+		}
+
+		NavigableMap<String, Entry> range(String prefix) {
+			if (prefix == null || prefix.isEmpty()) {
+				return objects;
+			}
+			return objects.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+		}
+
+		/**
+		 * 更新 key 所在的每一级目录的汇总值
+		 */
+		private void aggregate(String key, long count, long bytes) {
+			int end = 0;
+			while (end >= 0) {
+				directories.compute(key.substring(0, end), (directory, stat) -> {
+					long newCount = (stat == null ? 0 : stat.count()) + count;
+					return newCount <= 0 ? null : new Stat(newCount, (stat == null ? 0 : stat.bytes()) + bytes);
+				});
+				int next = key.indexOf('/', end);
+				end = next < 0 ? -1 : next + 1;
+			}
+		}
+
+	}
+
+	/**
+	 * 目录汇总
+	 *
+	 * @param count 对象数量
+	 * @param bytes 总字节数
+	 */
+	private record Stat(long count, long bytes) {
+	}
+
+	/**
+	 * 索引项，generation 为最近一次确认该项的同步标记，在对象锁内修改
+	 */
+	private static final class Entry {
+
+		private final long size;
+
+		private final long lastModified;
+
+		private final String eTag;
+
+		private int generation;
+
+		Entry(long size, long lastModified, String eTag, int generation) {
+			this.size = size;
+			this.lastModified = lastModified;
+			this.eTag = eTag;
+			this.generation = generation;
+		}
+
+		boolean matches(long size, long lastModified, String eTag) {
+			return this.size == size && this.lastModified == lastModified && Objects.equals(this.eTag, eTag);
+		}
+
+	}
+
+}
@@ -0,0 +1,85 @@
+/*
+ *    Copyright (c) 2018-2025, lengleng All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * Neither the name of the pig4cloud.com developer nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ * Author: lengleng (wangiegie@gmail.com)
+ */
+
+package com.pig4cloud.plugin.oss.interceptor;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 将 oss 操作上报为 Micrometer Observation，由 ObservationRegistry 转换为指标与 trace span
+ *
+ * @author lengleng
+ * @date 2026/10/18
+ */
+@RequiredArgsConstructor
+public class ObservationOssInterceptor implements OssInterceptor {
+
+	/**
+	 * Observation 名称
+	 */
+	public static final String OBSERVATION_NAME = "oss.operation";
+
+	private static final String OBSERVATION_ATTRIBUTE = ObservationOssInterceptor.class.getName();
+
+	private static final String SCOPE_ATTRIBUTE = OBSERVATION_ATTRIBUTE + ".scope";
+
+	private final ObservationRegistry observationRegistry;
+
+	@Override
+	public void beforeOperation(OssOperation operation) {
+		Observation observation = Observation.createNotStarted(OBSERVATION_NAME, observationRegistry)
+				.contextualName("oss " + operation.getType().name().toLowerCase())
+				.lowCardinalityKeyValue("oss.operation", operation.getType().name().toLowerCase())
+				.lowCardinalityKeyValue("oss.bucket", String.valueOf(operation.getBucketName()))
+				.highCardinalityKeyValue("oss.key", String.valueOf(operation.getObjectName()))
+				.start();
+		operation.getAttributes().put(OBSERVATION_ATTRIBUTE, observation);
+		// 远程调用期间作为当前 Observation，SDK 请求及日志可关联到该 span
+		operation.getAttributes().put(SCOPE_ATTRIBUTE, observation.openScope());
+	}
+
+	@Override
+	public void afterCall(OssOperation operation) {
+		Observation.Scope scope = (Observation.Scope) operation.getAttributes().remove(SCOPE_ATTRIBUTE);
+		if (scope != null) {
+			scope.close();
+		}
+	}
+
+	@Override
+	public void afterOperation(OssOperation operation) {
+		Observation observation = (Observation) operation.getAttributes().remove(OBSERVATION_ATTRIBUTE);
+		if (observation != null) {
+			if (operation.getBytes() >= 0) {
+				observation.highCardinalityKeyValue("oss.bytes", String.valueOf(operation.getBytes()));
+			}
+			observation.stop();
+		}
+	}
+
+	@Override
+	public void onError(OssOperation operation, Throwable error) {
+		Observation observation = (Observation) operation.getAttributes().remove(OBSERVATION_ATTRIBUTE);
+		if (observation != null) {
+			observation.error(error);
+			observation.stop();
+		}
+	}
+
+}
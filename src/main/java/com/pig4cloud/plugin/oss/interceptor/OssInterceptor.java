@@ -0,0 +1,63 @@
+/*
+ *    Copyright (c) 2018-2025, lengleng All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * Neither the name of the pig4cloud.com developer nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ * Author: lengleng (wangiegie@gmail.com)
+ */
+
+package com.pig4cloud.plugin.oss.interceptor;
+
+/**
+ * oss 操作拦截器
+ * <p>
+ * 注册为 Spring Bean 后由自动配置注入 OssTemplate，按 {@link org.springframework.core.Ordered} 顺序在每个模板操作前后回调。
+ * 未注册任何拦截器时不会创建操作上下文。
+ * <p>
+ * GET_OBJECT 操作在返回的流关闭时才结束：耗时为从发起请求到流关闭，字节数为实际读取的字节数。
+ *
+ * @author lengleng
+ * @date 2026/10/18
+ */
+public interface OssInterceptor {
+
+	/**
+	 * 操作开始前
+	 * @param operation 操作上下文
+	 */
+	default void beforeOperation(OssOperation operation) {
+	}
+
+	/**
+	 * 远程调用返回后在调用线程上回调，早于 afterOperation 与 onError。流式读取的操作可能在其他线程结束，
+	 * 与线程绑定的状态应在此释放
+	 * @param operation 操作上下文
+	 */
+	default void afterCall(OssOperation operation) {
+	}
+
+	/**
+	 * 操作成功后
+	 * @param operation 操作上下文
+	 */
+	default void afterOperation(OssOperation operation) {
+	}
+
+	/**
+	 * 操作失败后
+	 * @param operation 操作上下文
+	 * @param error 异常
+	 */
+	default void onError(OssOperation operation, Throwable error) {
+	}
+
+}
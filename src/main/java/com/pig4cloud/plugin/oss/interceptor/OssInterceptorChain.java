@@ -0,0 +1,223 @@
+/*
+ *    Copyright (c) 2018-2025, lengleng All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * Neither the name of the pig4cloud.com developer nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ * Author: lengleng (wangiegie@gmail.com)
+ */
+
+package com.pig4cloud.plugin.oss.interceptor;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * 按顺序执行拦截器，afterCall、afterOperation 与 onError 逆序回调
+ * <p>
+ * 各拦截器的回调相互隔离：回调抛出的异常只记录日志，不影响其他拦截器及操作本身的结果。
+ *
+ * @author lengleng
+ * @date 2026/10/18
+ */
+@Slf4j
+public class OssInterceptorChain {
+
+	private static final LongConsumer NO_BYTES = bytes -> {
+	};
+
+	private final OssInterceptor[] interceptors;
+
+	public OssInterceptorChain(List<OssInterceptor> interceptors) {
+		this.interceptors = interceptors.toArray(new OssInterceptor[0]);
+	}
+
+	/**
+	 * @return 是否没有注册拦截器
+	 */
+	public boolean isEmpty() {
+		return interceptors.length == 0;
+	}
+
+	/**
+	 * 执行一次操作
+	 * @param type 操作类型
+	 * @param bucketName bucket名称
+	 * @param objectName 文件名称
+	 * @param call 实际调用，参数用于记录传输的字节数
+	 * @return 调用结果
+	 */
+	public <T> T execute(OssOperationType type, String bucketName, String objectName, Function<LongConsumer, T> call) {
+		if (interceptors.length == 0) {
+			return call.apply(NO_BYTES);
+		}
+
+		OssOperation operation = begin(type, bucketName, objectName);
+		T result;
+		try {
+			result = call.apply(operation::setBytes);
+		}
+		catch (RuntimeException | Error e) {
+			fail(operation, e);
+			throw e;
+		}
+		operation.end();
+		notify("afterCall", interceptor -> interceptor.afterCall(operation));
+		notify("afterOperation", interceptor -> interceptor.afterOperation(operation));
+		return result;
+	}
+
+	/**
+	 * 执行一次返回数据流的操作，操作在流关闭时结束，耗时与字节数按实际读取计算
+	 * @param type 操作类型
+	 * @param bucketName bucket名称
+	 * @param objectName 文件名称
+	 * @param call 实际调用
+	 * @return 数据流，调用方必须关闭
+	 */
+	public InputStream executeStream(OssOperationType type, String bucketName, String objectName,
+			Supplier<InputStream> call) {
+		if (interceptors.length == 0) {
+			return call.get();
+		}
+
+		OssOperation operation = begin(type, bucketName, objectName);
+		InputStream stream;
+		try {
+			stream = call.get();
+		}
+		catch (RuntimeException | Error e) {
+			fail(operation, e);
+			throw e;
+		}
+		notify("afterCall", interceptor -> interceptor.afterCall(operation));
+		return new OperationInputStream(stream, operation);
+	}
+
+	private OssOperation begin(OssOperationType type, String bucketName, String objectName) {
+		OssOperation operation = new OssOperation(type, bucketName, objectName);
+		for (OssInterceptor interceptor : interceptors) {
+			try {
+				interceptor.beforeOperation(operation);
+			}
+			catch (RuntimeException e) {
+				log.warn("oss interceptor {} beforeOperation failed", interceptor.getClass().getName(), e);
+			}
+		}
+		operation.start();
+		return operation;
+	}
+
+	private void fail(OssOperation operation, Throwable error) {
+		operation.end();
+		notify("afterCall", interceptor -> interceptor.afterCall(operation));
+		notify("onError", interceptor -> interceptor.onError(operation, error));
+	}
+
+	/**
+	 * 逆序回调，单个拦截器的异常不影响其余拦截器
+	 */
+	private void notify(String callback, Consumer<OssInterceptor> action) {
+		for (int i = interceptors.length - 1; i >= 0; i--) {
+			try {
+				action.accept(interceptors[i]);
+			}
+			catch (RuntimeException e) {
+				log.warn("oss interceptor {} {} failed", interceptors[i].getClass().getName(), callback, e);
+			}
+		}
+	}
+
+	/**
+	 * 统计实际读取的字节数，关闭时结束操作
+	 */
+	private class OperationInputStream extends FilterInputStream {
+
+		private final OssOperation operation;
+
+		private long bytes;
+
+		private Throwable error;
+
+		private boolean closed;
+
+		OperationInputStream(InputStream in, OssOperation operation) {
+			super(in);
+			this.operation = operation;
+		}
+
+		@Override
+		public int read() throws IOException {
+			try {
+				int b = super.read();
+				if (b >= 0) {
+					bytes++;
+				}
+				return b;
+			}
+			catch (IOException | RuntimeException e) {
+				error = e;
+				throw e;
+			}
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			try {
+				int n = super.read(b, off, len);
+				if (n > 0) {
+					bytes += n;
+				}
+				return n;
+			}
+			catch (IOException | RuntimeException e) {
+				error = e;
+				throw e;
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				super.close();
+			}
+			catch (IOException | RuntimeException e) {
+				if (error == null) {
+					error = e;
+				}
+				throw e;
+			}
+			finally {
+				if (!closed) {
+					closed = true;
+					operation.setBytes(bytes);
+					operation.end();
+					if (error != null) {
+						notify("onError", interceptor -> interceptor.onError(operation, error));
+					}
+					else {
+						notify("afterOperation", interceptor -> interceptor.afterOperation(operation));
+					}
+				}
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,93 @@
+/*
+ *    Copyright (c) 2018-2025, lengleng All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * Neither the name of the pig4cloud.com developer nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ * Author: lengleng (wangiegie@gmail.com)
+ */
+
+package com.pig4cloud.plugin.oss.interceptor;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 一次 oss 操作的上下文，在拦截器各回调间传递
+ *
+ * @author lengleng
+ * @date 2026/10/18
+ */
+@Getter
+public class OssOperation {
+
+	/**
+	 * 操作类型
+	 */
+	private final OssOperationType type;
+
+	/**
+	 * bucket名称，列出 bucket 时为空
+	 */
+	private final String bucketName;
+
+	/**
+	 * 文件名称，bucket 级操作时为空
+	 */
+	private final String objectName;
+
+	/**
+	 * 传输的字节数，未知时为 -1
+	 */
+	@Setter
+	private long bytes = -1;
+
+	/**
+	 * 开始时间（纳秒）
+	 */
+	private long startNanos;
+
+	/**
+	 * 结束时间（纳秒），未结束时为 0
+	 */
+	private long endNanos;
+
+	/**
+	 * 供拦截器保存自定义数据
+	 */
+	private final Map<String, Object> attributes = new HashMap<>(4);
+
+	public OssOperation(OssOperationType type, String bucketName, String objectName) {
+		this.type = type;
+		this.bucketName = bucketName;
+		this.objectName = objectName;
+	}
+
+	/**
+	 * @return 操作耗时，未结束时为到当前的耗时
+	 */
+	public Duration getDuration() {
+		return Duration.ofNanos((endNanos != 0 ? endNanos : System.nanoTime()) - startNanos);
+	}
+
+	void start() {
+		this.startNanos = System.nanoTime();
+	}
+
+	void end() {
+		this.endNanos = System.nanoTime();
+	}
+
+}
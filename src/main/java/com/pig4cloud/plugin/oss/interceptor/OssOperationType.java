@@ -0,0 +1,31 @@
+/*
+ *    Copyright (c) 2018-2025, lengleng All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * Neither the name of the pig4cloud.com developer nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ * Author: lengleng (wangiegie@gmail.com)
+ */
+
+package com.pig4cloud.plugin.oss.interceptor;
+
+/**
+ * oss 操作类型
+ *
+ * @author lengleng
+ * @date 2026/10/18
+ */
+public enum OssOperationType {
+
+	CREATE_BUCKET, HEAD_BUCKET, LIST_BUCKETS, REMOVE_BUCKET, LIST_OBJECTS, GET_OBJECT, PUT_OBJECT, HEAD_OBJECT,
+	REMOVE_OBJECT, PRESIGN, CREATE_MULTIPART_UPLOAD, COMPLETE_MULTIPART_UPLOAD, ABORT_MULTIPART_UPLOAD
+
+}
@@ -0,0 +1,61 @@
+/*
+ *    Copyright (c) 2018-2025, lengleng All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * Neither the name of the pig4cloud.com developer nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ * Author: lengleng (wangiegie@gmail.com)
+ */
+
+package com.pig4cloud.plugin.oss.interceptor;
+
+import com.pig4cloud.plugin.oss.OssProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+
+/**
+ * 慢操作日志，耗时超过阈值的操作以 WARN 级别输出
+ *
+ * @author lengleng
+ * @date 2026/10/18
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class SlowOperationLogInterceptor implements OssInterceptor {
+
+	private final OssProperties.SlowLog config;
+
+	@Override
+	public void afterOperation(OssOperation operation) {
+		if (isSlow(operation)) {
+			log.warn("slow oss operation {} {}/{} took {} ms, {} bytes", operation.getType(),
+					operation.getBucketName(), operation.getObjectName(), operation.getDuration().toMillis(),
+					operation.getBytes());
+		}
+	}
+
+	@Override
+	public void onError(OssOperation operation, Throwable error) {
+		if (isSlow(operation)) {
+			log.warn("slow oss operation {} {}/{} failed after {} ms: {}", operation.getType(),
+					operation.getBucketName(), operation.getObjectName(), operation.getDuration().toMillis(),
+					error.getMessage());
+		}
+	}
+
+	private boolean isSlow(OssOperation operation) {
+		Duration threshold = config.getThresholds().getOrDefault(operation.getType(), config.getThreshold());
+		return operation.getDuration().compareTo(threshold) > 0;
+	}
+
+}
@@ -0,0 +1,266 @@
+/*
+ *    Copyright (c) 2018-2025, lengleng All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * Neither the name of the pig4cloud.com developer nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ * Author: lengleng (wangiegie@gmail.com)
+ */
+
+package com.pig4cloud.plugin.oss.limit;
+
+import com.pig4cloud.plugin.oss.OssProperties;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+
+import java.io.InputStream;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * oss 客户端限流
+ * <p>
+ * 作为 S3Client 的 {@link ExecutionInterceptor} 注册，每次 HTTP 发送（包括 SDK 内部重试）前按 bucket
+ * 或前缀获取请求令牌；自适应模式下根据响应状态码调整速率：503 SlowDown 时按系数降速，之后每个恢复周期回升 10%，直至配置的上限。
+ * 上传、下载带宽通过包装数据流限制。按前缀限流时令牌桶数量以 maxPrefixes 为上限，超出后淘汰最久未使用的前缀。
+ *
+ * @author lengleng
+ * @date 2026/10/18
+ */
+public class OssRateLimiter implements ExecutionInterceptor {
+
+	/**
+	 * SlowDown 对应的 HTTP 状态码
+	 */
+	private static final int SLOW_DOWN_STATUS = 503;
+
+	/**
+	 * 自适应模式下的最低速率占上限的比例
+	 */
+	private static final double MIN_RATE_RATIO = 0.05;
+
+	/**
+	 * 每次恢复的速率占上限的比例
+	 */
+	private static final double RAMP_UP_RATIO = 0.1;
+
+	/**
+	 * 淘汰后保留的令牌桶数量占上限的比例，避免每新增一个前缀都触发淘汰
+	 */
+	private static final double EVICT_RETAIN_RATIO = 0.9;
+
+	private final OssProperties.RateLimit config;
+
+	private final ConcurrentMap<String, AdaptiveBucket> requestBuckets = new ConcurrentHashMap<>();
+
+	private final AtomicBoolean evicting = new AtomicBoolean();
+
+	private final TokenBucket uploadBucket;
+
+	private final TokenBucket downloadBucket;
+
+	public OssRateLimiter(OssProperties.RateLimit config) {
+		// 自适应模式从 requestsPerSecond 起降速与恢复，没有上限时无法生效
+		if (config.isAdaptive() && config.getRequestsPerSecond() <= 0) {
+			throw new IllegalArgumentException(
+					"oss.rate-limit.adaptive requires oss.rate-limit.requests-per-second to be greater than 0");
+		}
+		this.config = config;
+		this.uploadBucket = config.getUploadBytesPerSecond() != null
+				? new TokenBucket(config.getUploadBytesPerSecond().toBytes()) : null;
+		this.downloadBucket = config.getDownloadBytesPerSecond() != null
+				? new TokenBucket(config.getDownloadBytesPerSecond().toBytes()) : null;
+	}
+
+	/**
+	 * 限制上传流速率
+	 * @param stream 上传流
+	 * @return 限速后的流
+	 */
+	public InputStream limitUpload(InputStream stream) {
+		return uploadBucket == null ? stream : new RateLimitedInputStream(stream, uploadBucket);
+	}
+
+	/**
+	 * 限制下载流速率
+	 * @param stream 下载流
+	 * @return 限速后的流
+	 */
+	public InputStream limitDownload(InputStream stream) {
+		return downloadBucket == null ? stream : new RateLimitedInputStream(stream, downloadBucket);
+	}
+
+	/**
+	 * 获取当前请求速率
+	 * @param bucketName bucket名称
+	 * @param objectName 文件名称，按 bucket 限流时可为空
+	 * @return 每秒请求数，未限流时为空
+	 */
+	public Optional<Double> getRequestRate(String bucketName, String objectName) {
+		return Optional.ofNullable(requestBuckets.get(limitKey(bucketName, objectName)))
+				.map(b -> b.bucket.getRate());
+	}
+
+	@Override
+	public void beforeTransmission(Context.BeforeTransmission context, ExecutionAttributes executionAttributes) {
+		SdkRequest request = context.request();
+		acquire(bucketName(request), objectName(request));
+	}
+
+	@Override
+	public void afterTransmission(Context.AfterTransmission context, ExecutionAttributes executionAttributes) {
+		SdkRequest request = context.request();
+		onResponse(bucketName(request), objectName(request), context.httpResponse().statusCode());
+	}
+
+	/**
+	 * 获取一个请求令牌
+	 * @param bucketName bucket名称
+	 * @param objectName 文件名称，可为空
+	 */
+	void acquire(String bucketName, String objectName) {
+		AdaptiveBucket bucket = requestBucket(bucketName, objectName);
+		if (bucket != null) {
+			bucket.bucket.acquire(1);
+		}
+	}
+
+	/**
+	 * 根据响应状态码调整自适应速率
+	 * @param bucketName bucket名称
+	 * @param objectName 文件名称，可为空
+	 * @param statusCode HTTP 状态码
+	 */
+	void onResponse(String bucketName, String objectName, int statusCode) {
+		if (!config.isAdaptive()) {
+			return;
+		}
+		AdaptiveBucket bucket = requestBucket(bucketName, objectName);
+		if (bucket == null) {
+			return;
+		}
+		if (statusCode == SLOW_DOWN_STATUS) {
+			bucket.backoff();
+		}
+		else {
+			bucket.rampUp();
+		}
+	}
+
+	/**
+	 * @return 当前保留的请求令牌桶数量
+	 */
+	int getTrackedCount() {
+		return requestBuckets.size();
+	}
+
+	private static String bucketName(SdkRequest request) {
+		return request.getValueForField("Bucket", String.class).orElse("");
+	}
+
+	private static String objectName(SdkRequest request) {
+		return request.getValueForField("Key", String.class).orElse(null);
+	}
+
+	private AdaptiveBucket requestBucket(String bucketName, String objectName) {
+		if (config.getRequestsPerSecond() <= 0) {
+			return null;
+		}
+		String key = limitKey(bucketName, objectName);
+		AdaptiveBucket bucket = requestBuckets.get(key);
+		if (bucket == null) {
+			bucket = requestBuckets.computeIfAbsent(key, k -> new AdaptiveBucket());
+			if (requestBuckets.size() > config.getMaxPrefixes()) {
+				evict();
+			}
+		}
+		bucket.lastUsedNanos = System.nanoTime();
+		return bucket;
+	}
+
+	/**
+	 * 淘汰最久未使用的令牌桶，同一时刻只有一个线程执行
+	 */
+	private void evict() {
+		if (!evicting.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			int retain = (int) (config.getMaxPrefixes() * EVICT_RETAIN_RATIO);
+			int excess = requestBuckets.size() - retain;
+			if (excess <= 0) {
+				return;
+			}
+			requestBuckets.entrySet().stream()
+					.sorted(Comparator.comparingLong(e -> e.getValue().lastUsedNanos)).limit(excess)
+					.map(Map.Entry::getKey).toList().forEach(requestBuckets::remove);
+		}
+		finally {
+			evicting.set(false);
+		}
+	}
+
+	private String limitKey(String bucketName, String objectName) {
+		if (config.getPrefixDepth() <= 0 || objectName == null) {
+			return bucketName;
+		}
+		int end = -1;
+		for (int i = 0; i < config.getPrefixDepth(); i++) {
+			int next = objectName.indexOf('/', end + 1);
+			if (next < 0) {
+				break;
+			}
+			end = next;
+		}
+		return end < 0 ? bucketName : bucketName + '/' + objectName.substring(0, end + 1);
+	}
+
+	/**
+	 * 请求令牌桶及自适应状态
+	 */
+	private class AdaptiveBucket {
+
+		private final double ceiling = config.getRequestsPerSecond();
+
+		private final TokenBucket bucket = new TokenBucket(ceiling);
+
+		private long lastAdjustNanos = System.nanoTime();
+
+		private volatile long lastUsedNanos = lastAdjustNanos;
+
+		synchronized void backoff() {
+			long now = System.nanoTime();
+			// 同一周期内的多个 SlowDown 只降速一次
+			if (bucket.getRate() < ceiling && now - lastAdjustNanos < config.getRampUpInterval().toNanos()) {
+				return;
+			}
+			bucket.setRate(Math.max(ceiling * MIN_RATE_RATIO, bucket.getRate() * config.getBackoffFactor()));
+			lastAdjustNanos = now;
+		}
+
+		synchronized void rampUp() {
+			long now = System.nanoTime();
+			if (bucket.getRate() >= ceiling || now - lastAdjustNanos < config.getRampUpInterval().toNanos()) {
+				return;
+			}
+			bucket.setRate(Math.min(ceiling, bucket.getRate() + ceiling * RAMP_UP_RATIO));
+			lastAdjustNanos = now;
+		}
+
+	}
+
+}
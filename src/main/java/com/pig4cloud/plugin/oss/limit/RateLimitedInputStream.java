@@ -0,0 +1,71 @@
+/*
+ *    Copyright (c) 2018-2025, lengleng All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * Neither the name of the pig4cloud.com developer nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ * Author: lengleng (wangiegie@gmail.com)
+ */
+
+package com.pig4cloud.plugin.oss.limit;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 按字节限速的输入流
+ *
+ * @author lengleng
+ * @date 2026/10/18
+ */
+public class RateLimitedInputStream extends FilterInputStream {
+
+	/**
+	 * 单次读取上限，避免一次读取透支过多令牌
+	 */
+	private static final int MAX_CHUNK = 16 * 1024;
+
+	private final TokenBucket bucket;
+
+	public RateLimitedInputStream(InputStream in, TokenBucket bucket) {
+		super(in);
+		this.bucket = bucket;
+	}
+
+	@Override
+	public int read() throws IOException {
+		int b = super.read();
+		if (b >= 0) {
+			bucket.acquire(1);
+		}
+		return b;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		int n = super.read(b, off, Math.min(len, MAX_CHUNK));
+		if (n > 0) {
+			bucket.acquire(n);
+		}
+		return n;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		long skipped = super.skip(n);
+		if (skipped > 0) {
+			bucket.acquire(skipped);
+		}
+		return skipped;
+	}
+
+}
@@ -0,0 +1,91 @@
+/*
+ *    Copyright (c) 2018-2025, lengleng All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * Neither the name of the pig4cloud.com developer nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ * Author: lengleng (wangiegie@gmail.com)
+ */
+
+package com.pig4cloud.plugin.oss.limit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 令牌桶
+ * <p>
+ * 桶容量为一秒的令牌数。令牌不足时允许透支，后续调用按透支量顺延等待，保证总体速率不超过设定值。
+ *
+ * @author lengleng
+ * @date 2026/10/18
+ */
+public class TokenBucket {
+
+	private double permitsPerSecond;
+
+	private double storedPermits;
+
+	private long lastRefillNanos;
+
+	public TokenBucket(double permitsPerSecond) {
+		if (permitsPerSecond <= 0) {
+			throw new IllegalArgumentException("permitsPerSecond must be positive");
+		}
+		this.permitsPerSecond = permitsPerSecond;
+		this.storedPermits = permitsPerSecond;
+		this.lastRefillNanos = System.nanoTime();
+	}
+
+	/**
+	 * 获取令牌，不足时阻塞等待
+	 * @param permits 令牌数
+	 */
+	public void acquire(long permits) {
+		long waitNanos;
+		synchronized (this) {
+			refill(System.nanoTime());
+			storedPermits -= permits;
+			waitNanos = storedPermits >= 0 ? 0
+					: (long) (-storedPermits / permitsPerSecond * TimeUnit.SECONDS.toNanos(1));
+		}
+
+		long deadline = System.nanoTime() + waitNanos;
+		while (waitNanos > 0 && !Thread.currentThread().isInterrupted()) {
+			LockSupport.parkNanos(this, waitNanos);
+			waitNanos = deadline - System.nanoTime();
+		}
+	}
+
+	/**
+	 * 调整速率
+	 * @param permitsPerSecond 每秒令牌数
+	 */
+	public synchronized void setRate(double permitsPerSecond) {
+		if (permitsPerSecond <= 0) {
+			throw new IllegalArgumentException("permitsPerSecond must be positive");
+		}
+		refill(System.nanoTime());
+		this.permitsPerSecond = permitsPerSecond;
+		this.storedPermits = Math.min(storedPermits, permitsPerSecond);
+	}
+
+	public synchronized double getRate() {
+		return permitsPerSecond;
+	}
+
+	private void refill(long now) {
+		double elapsedSeconds = (now - lastRefillNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+		storedPermits = Math.min(permitsPerSecond, storedPermits + elapsedSeconds * permitsPerSecond);
+		lastRefillNanos = now;
+	}
+
+}
@@ -0,0 +1,964 @@
+/*
+ *    Copyright (c) 2018-2025, lengleng All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * Neither the name of the pig4cloud.com developer nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ * Author: lengleng (wangiegie@gmail.com)
+ */
+
+package com.pig4cloud.plugin.oss.pack;
+
+import com.pig4cloud.plugin.oss.OssProperties;
+import com.pig4cloud.plugin.oss.service.OssTemplate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 小文件打包存储
+ * <p>
+ * 小对象先追加到内存中的批次，按大小或时间上限合并写入一个 pack 对象，读取时按索引 (pack, offset, length) 发起 Range GET。
+ * 超过 maxObjectSize 的对象直接按原 key 写入 bucket。
+ * <p>
+ * pack 格式：对象数据 | 索引 | 8 字节索引起始位置。索引中除写入项外还包含删除标记（tombstone），启动时回放全部 pack
+ * 即可恢复索引。后台压缩会重写已删除比例超过阈值的 pack。
+ * <p>
+ * 多实例部署时，每个实例写入各自的命名空间（{@code <prefix><instanceId>/}），都可以写入和删除，并按 refreshInterval
+ * 加载其他实例新生成的 pack。pack 名称以毫秒时间戳开头，同一 key 在多个 pack 中的版本以时间靠后者为准；删除标记只移除
+ * 删除时看到的版本，压缩生成的 pack 沿用原 pack 的时间戳与来源标识，因此压缩前后删除标记都能命中。多个实例并发写入同一
+ * key 时以 pack 时间为准，实例间时钟需大致同步。
+ * <p>
+ * 压缩会删除其他实例的 pack，只有持有压缩租约（前缀下的 compaction.lock 对象）的实例执行，压缩前先加载最新的 pack。
+ * 租约以条件写入更新（创建时 If-None-Match，续期与接管时 If-Match 读取到的 eTag），并发抢占时只有一个实例成功；
+ * 过期时间按各实例的系统时钟判断，实例间时钟需大致同步。
+ *
+ * @author lengleng
+ * @date 2026/10/18
+ */
+@Slf4j
+public class OssPackStore implements InitializingBean, DisposableBean {
+
+	/**
+	 * pack 尾部索引位置的字节数
+	 */
+	private static final int TRAILER_LENGTH = Long.BYTES;
+
+	/**
+	 * 索引中删除标记的长度值
+	 */
+	private static final int TOMBSTONE = -1;
+
+	private static final String PACK_SUFFIX = ".pack";
+
+	private static final String LOCK_NAME = "compaction.lock";
+
+	private static final int CONFLICT = 409;
+
+	private static final int PRECONDITION_FAILED = 412;
+
+	/**
+	 * pack 名称中时间戳的位数
+	 */
+	private static final int PACK_TIME_DIGITS = 13;
+
+	private final OssTemplate ossTemplate;
+
+	private final OssProperties.Pack config;
+
+	private final String bucketName;
+
+	private final String lockName;
+
+	/**
+	 * 当前实例标识，写入租约中
+	 */
+	private final String instanceId = UUID.randomUUID().toString();
+
+	/**
+	 * 当前实例写入的命名空间
+	 */
+	private final String packPrefix;
+
+	/**
+	 * key 与已落盘位置的映射
+	 */
+	private final Map<String, Location> index = new HashMap<>();
+
+	/**
+	 * 已落盘的 pack 统计，按加载顺序
+	 */
+	private final Map<String, PackInfo> packs = new LinkedHashMap<>();
+
+	/**
+	 * 已删除的版本，pack 为来源标识；晚于删除标记加载的同一版本（如其他实例压缩生成的 pack）不再加入索引
+	 */
+	private final Set<Tombstone> deleted = new HashSet<>();
+
+	/**
+	 * 串行化 pack 上传与加载
+	 */
+	private final Object flushLock = new Object();
+
+	private ScheduledExecutorService scheduler;
+
+	private Batch current = new Batch();
+
+	/**
+	 * 正在上传的批次，上传期间仍可读取
+	 */
+	private Batch flushing;
+
+	private long lastPackTime;
+
+	/**
+	 * 当前实例持有的压缩租约的过期时间，按续期请求发出前的时间计算，未持有时为 0
+	 */
+	private volatile long leaseExpiresAt;
+
+	public OssPackStore(OssTemplate ossTemplate, OssProperties ossProperties) {
+		this.ossTemplate = ossTemplate;
+		this.config = ossProperties.getPack();
+		this.bucketName = config.getBucketName() != null ? config.getBucketName() : ossProperties.getBucketName();
+		this.lockName = config.getPrefix() + LOCK_NAME;
+		this.packPrefix = config.getPrefix() + instanceId + "/";
+	}
+
+	/**
+	 * 写入对象
+	 * <p>
+	 * 小对象先进入内存批次，批次写满、flushInterval 到期或调用 {@link #flush()} 后才写入 bucket，在此之前进程退出会丢失
+	 * 这部分数据；当前实例可以立即读到，其他实例在落盘并 refresh 后可见。
+	 * @param objectName 文件名称
+	 * @param content 文件内容
+	 */
+	public void putObject(String objectName, byte[] content) {
+		if (content.length > config.getMaxObjectSize().toBytes()) {
+			ossTemplate.putObject(bucketName, objectName, new ByteArrayInputStream(content), content.length,
+					"application/octet-stream");
+			// 旧的打包版本失效
+			synchronized (this) {
+				discard(objectName);
+			}
+			return;
+		}
+
+		boolean full;
+		synchronized (this) {
+			discard(objectName);
+			current.add(objectName, content);
+			full = current.size() >= config.getMaxPackSize().toBytes();
+		}
+		if (full) {
+			flush();
+		}
+	}
+
+	/**
+	 * 写入对象
+	 * @param objectName 文件名称
+	 * @param stream 文件流
+	 * @throws IOException IOException
+	 * @see #putObject(String, byte[])
+	 */
+	public void putObject(String objectName, InputStream stream) throws IOException {
+		putObject(objectName, stream.readAllBytes());
+	}
+
+	/**
+	 * 读取对象，未打包的对象直接从 bucket 读取
+	 * @param objectName 文件名称
+	 * @return 二进制流
+	 */
+	public InputStream getObject(String objectName) {
+		Location location;
+		synchronized (this) {
+			byte[] pending = current.read(objectName);
+			if (pending == null && flushing != null) {
+				pending = flushing.read(objectName);
+			}
+			if (pending != null) {
+				return new ByteArrayInputStream(pending);
+			}
+			location = index.get(objectName);
+		}
+
+		if (location == null) {
+			return ossTemplate.getObject(bucketName, objectName);
+		}
+		if (location.length() == 0) {
+			return new ByteArrayInputStream(new byte[0]);
+		}
+		try {
+			return ossTemplate.getObject(bucketName, location.pack(), location.offset(), location.length());
+		}
+		catch (NoSuchKeyException e) {
+			// pack 在读取期间被压缩删除，加载压缩生成的新 pack 后按新的位置重新读取
+			try {
+				refresh();
+			}
+			catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+			synchronized (this) {
+				if (location.equals(index.get(objectName))) {
+					throw e;
+				}
+			}
+			return getObject(objectName);
+		}
+	}
+
+	/**
+	 * 删除对象
+	 * <p>
+	 * 同时删除 bucket 中同名的直接写入对象，避免其在打包版本删除后重新可见。
+	 * @param objectName 文件名称
+	 */
+	public void removeObject(String objectName) {
+		synchronized (this) {
+			discard(objectName);
+		}
+		ossTemplate.removeObject(bucketName, objectName);
+	}
+
+	/**
+	 * 立即将当前批次写入新的 pack
+	 */
+	public void flush() {
+		synchronized (flushLock) {
+			Batch batch;
+			byte[] pack;
+			Map<String, Location> entries;
+			List<Tombstone> tombstones;
+			synchronized (this) {
+				if (current.isEmpty()) {
+					return;
+				}
+				// 在锁内生成 pack 内容并复制索引，上传期间的删除只修改批次本身，不影响已生成的 pack；
+				// 生成失败时批次仍是当前批次，不会丢失
+				batch = current;
+				pack = batch.toPack();
+				entries = new LinkedHashMap<>(batch.entries);
+				tombstones = new ArrayList<>(batch.tombstones);
+				batch.packName = nextPackName();
+				flushing = batch;
+				current = new Batch();
+			}
+
+			try {
+				ossTemplate.putObject(bucketName, batch.packName, new ByteArrayInputStream(pack), pack.length,
+						"application/octet-stream");
+			}
+			catch (RuntimeException e) {
+				synchronized (this) {
+					// 上传失败时放回当前批次，等待下次重试
+					batch.packName = null;
+					batch.append(current);
+					current = batch;
+					flushing = null;
+				}
+				throw e;
+			}
+
+			synchronized (this) {
+				// 上传期间被删除或覆盖的 key 已记录为已删除版本，不会加入索引
+				apply(batch.packName, entries, tombstones, batch.size());
+				flushing = null;
+			}
+		}
+	}
+
+	/**
+	 * 压缩已删除比例超过阈值的 pack：存活对象重新写入新的 pack 后删除旧 pack
+	 */
+	public void compact() {
+		// 只有持有租约的实例可以删除 pack，压缩前重新确认租约
+		if (!isCompactor() || !acquireLease()) {
+			return;
+		}
+		try {
+			// 先加载其他实例的删除标记，避免把已删除的对象复制到新的 pack
+			refresh();
+		}
+		catch (Exception e) {
+			log.warn("oss pack compaction skipped, refresh failed: {}", e.getMessage());
+			return;
+		}
+		List<String> candidates = new ArrayList<>();
+		synchronized (this) {
+			Map<String, List<PackInfo>> origins = origins();
+			packs.forEach((name, info) -> {
+				if (info.totalBytes == 0) {
+					// 只含删除标记的 pack，在其标记的版本都已从 pack 中清除后才可清理
+					if (info.tombstones.stream().noneMatch(t -> retained(origins, t))) {
+						candidates.add(name);
+					}
+				}
+				else if (1 - (double) info.liveBytes / info.totalBytes >= config.getCompactionThreshold()) {
+					candidates.add(name);
+				}
+			});
+		}
+
+		for (String pack : candidates) {
+			if (!isCompactor()) {
+				log.warn("oss pack compaction stopped, the compaction lease expired");
+				return;
+			}
+			try {
+				compact(pack);
+			}
+			catch (Exception e) {
+				log.warn("oss pack {} compaction failed: {}", pack, e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * 从 bucket 加载其他实例新写入的 pack，并移除已被压缩删除的 pack
+	 * @throws IOException IOException
+	 */
+	public void refresh() throws IOException {
+		// 与写入串行，避免同一 pack 被重复回放
+		synchronized (flushLock) {
+			List<String> names = new ArrayList<>();
+			Map<String, Long> sizes = new HashMap<>();
+			for (S3Object object : ossTemplate.listAllObjects(bucketName, config.getPrefix())) {
+				if (object.key().endsWith(PACK_SUFFIX)) {
+					names.add(object.key());
+					sizes.put(object.key(), object.size());
+				}
+			}
+			// 各实例的 pack 按时间交错回放
+			names.sort(OssPackStore::compareVersion);
+
+			Set<String> known;
+			synchronized (this) {
+				known = new HashSet<>(packs.keySet());
+			}
+			int loaded = 0;
+			for (String pack : names) {
+				if (!known.contains(pack)) {
+					load(pack, sizes.get(pack));
+					loaded++;
+				}
+			}
+
+			// 被压缩的 pack 中存活的对象已在上面加载的新 pack 中
+			known.removeAll(names);
+			synchronized (this) {
+				for (String pack : known) {
+					packs.remove(pack);
+					index.values().removeIf(location -> pack.equals(location.pack()));
+				}
+				if (!known.isEmpty()) {
+					rebuildDeleted();
+				}
+			}
+			if (loaded > 0 || !known.isEmpty()) {
+				log.debug("oss pack store loaded {} packs and dropped {} packs, {} objects", loaded, known.size(),
+						getObjectCount());
+			}
+		}
+	}
+
+	/**
+	 * @return 当前实例是否持有压缩租约
+	 */
+	public boolean isCompactor() {
+		return System.currentTimeMillis() < leaseExpiresAt;
+	}
+
+	/**
+	 * @return 已打包的对象数量
+	 */
+	public synchronized int getObjectCount() {
+		return index.size();
+	}
+
+	/**
+	 * @return pack 数量
+	 */
+	public synchronized int getPackCount() {
+		return packs.size();
+	}
+
+	private void compact(String pack) throws IOException {
+		byte[] data;
+		try (InputStream in = ossTemplate.getObject(bucketName, pack)) {
+			data = in.readAllBytes();
+		}
+
+		// 与写入、加载串行，压缩生成的 pack 不会被 refresh 重复回放
+		synchronized (flushLock) {
+			Batch copy = new Batch();
+			synchronized (this) {
+				PackInfo info = packs.get(pack);
+				if (info == null) {
+					return;
+				}
+				for (Map.Entry<String, Location> e : index.entrySet()) {
+					Location location = e.getValue();
+					if (pack.equals(location.pack())) {
+						copy.add(e.getKey(), Arrays.copyOfRange(data, (int) location.offset(),
+								(int) location.offset() + location.length()));
+					}
+				}
+				// 指向仍存在的版本的删除标记需要保留
+				Map<String, List<PackInfo>> origins = origins();
+				for (Tombstone tombstone : info.tombstones) {
+					if (retained(origins, tombstone)) {
+						copy.tombstones.add(tombstone);
+					}
+				}
+			}
+
+			// 沿用原 pack 的时间戳与来源标识，版本先后与删除标记不受压缩影响
+			String name = copy.isEmpty() ? null
+					: packPrefix + origin(pack) + "." + UUID.randomUUID().toString().substring(0, 8) + PACK_SUFFIX;
+			if (name != null) {
+				ensureLease(pack);
+				byte[] content = copy.toPack();
+				ossTemplate.putObject(bucketName, name, new ByteArrayInputStream(content), content.length,
+						"application/octet-stream");
+			}
+
+			// 租约在复制期间过期时保留原 pack，已上传的副本与原 pack 来源相同，不影响读取
+			ensureLease(pack);
+			synchronized (this) {
+				if (name != null) {
+					PackInfo info = new PackInfo();
+					info.totalBytes = copy.size();
+					info.tombstones.addAll(copy.tombstones);
+					packs.put(name, info);
+					for (Map.Entry<String, Location> e : copy.entries.entrySet()) {
+						// 复制期间被删除或覆盖的 key 已记录指向原 pack 的删除标记，不再指向新的 pack
+						Location old = index.get(e.getKey());
+						if (old != null && pack.equals(old.pack())) {
+							index.put(e.getKey(), new Location(name, e.getValue().offset(), e.getValue().length()));
+							info.liveBytes += e.getValue().length();
+						}
+						else {
+							info.deadKeys.add(e.getKey());
+						}
+					}
+				}
+				packs.remove(pack);
+				rebuildDeleted();
+			}
+		}
+		ossTemplate.removeObject(bucketName, pack);
+		log.debug("oss pack {} compacted", pack);
+	}
+
+	private void ensureLease(String pack) {
+		if (!isCompactor()) {
+			throw new IllegalStateException("oss pack " + pack + " not compacted, the compaction lease expired");
+		}
+	}
+
+	/**
+	 * 使 key 当前的版本失效
+	 * @return key 是否存在于打包存储中
+	 */
+	private boolean discard(String objectName) {
+		boolean found = current.remove(objectName);
+		if (flushing != null && flushing.remove(objectName)) {
+			tombstone(objectName, flushing.packName);
+			found = true;
+		}
+		Location location = index.remove(objectName);
+		if (location != null) {
+			release(objectName, location);
+			tombstone(objectName, location.pack());
+			found = true;
+		}
+		return found;
+	}
+
+	private void tombstone(String objectName, String pack) {
+		current.tombstones.add(new Tombstone(objectName, pack));
+		deleted.add(deletion(objectName, pack));
+	}
+
+	/**
+	 * 将一个 pack 的索引合并到内存索引
+	 */
+	private void apply(String pack, Map<String, Location> entries, List<Tombstone> tombstones, long dataBytes) {
+		PackInfo info = packs.computeIfAbsent(pack, k -> new PackInfo());
+		info.totalBytes += dataBytes;
+		for (Tombstone tombstone : tombstones) {
+			delete(tombstone);
+			info.tombstones.add(tombstone);
+		}
+		String origin = origin(pack);
+		for (Map.Entry<String, Location> e : entries.entrySet()) {
+			String key = e.getKey();
+			if (deleted.contains(new Tombstone(key, origin))) {
+				info.deadKeys.add(key);
+				continue;
+			}
+			Location old = index.get(key);
+			if (old != null && compareVersion(old.pack(), pack) > 0) {
+				// 其他实例并发写入了更新的版本
+				info.deadKeys.add(key);
+				supersede(old.pack(), key, pack);
+				continue;
+			}
+			if (old != null) {
+				release(key, old);
+				if (!origin(old.pack()).equals(origin)) {
+					supersede(pack, key, old.pack());
+				}
+			}
+			index.put(key, new Location(pack, e.getValue().offset(), e.getValue().length()));
+			info.liveBytes += e.getValue().length();
+		}
+	}
+
+	private void delete(Tombstone tombstone) {
+		deleted.add(deletion(tombstone.key(), tombstone.pack()));
+		Location location = index.get(tombstone.key());
+		if (location != null && origin(location.pack()).equals(origin(tombstone.pack()))) {
+			index.remove(tombstone.key());
+			release(tombstone.key(), location);
+		}
+	}
+
+	/**
+	 * 记录 pack 中的一个版本已失效
+	 */
+	private void release(String objectName, Location location) {
+		PackInfo info = packs.get(location.pack());
+		if (info != null) {
+			info.liveBytes -= location.length();
+			info.deadKeys.add(objectName);
+		}
+	}
+
+	/**
+	 * 记录被其他实例的新版本覆盖、但没有对应删除标记的旧版本。压缩新版本所在的 pack 时一并保留，避免新版本删除后旧版本重新可见
+	 */
+	private void supersede(String newer, String objectName, String older) {
+		Tombstone tombstone = new Tombstone(objectName, older);
+		PackInfo info = packs.get(newer);
+		if (!info.tombstones.contains(tombstone)) {
+			info.tombstones.add(tombstone);
+		}
+		deleted.add(deletion(objectName, older));
+	}
+
+	/**
+	 * 按仍存在的删除标记重建已删除版本
+	 */
+	private void rebuildDeleted() {
+		deleted.clear();
+		for (PackInfo info : packs.values()) {
+			info.tombstones.forEach(t -> deleted.add(deletion(t.key(), t.pack())));
+		}
+		current.tombstones.forEach(t -> deleted.add(deletion(t.key(), t.pack())));
+		if (flushing != null) {
+			flushing.tombstones.forEach(t -> deleted.add(deletion(t.key(), t.pack())));
+		}
+	}
+
+	/**
+	 * @return 来源标识与 pack 的映射，压缩未完成时同一来源可能有多个 pack
+	 */
+	private Map<String, List<PackInfo>> origins() {
+		Map<String, List<PackInfo>> origins = new HashMap<>();
+		packs.forEach((name, info) -> origins.computeIfAbsent(origin(name), k -> new ArrayList<>()).add(info));
+		return origins;
+	}
+
+	/**
+	 * 删除标记指向的版本是否仍在某个 pack 中，压缩后不再包含该版本时删除标记可以清理
+	 */
+	private static boolean retained(Map<String, List<PackInfo>> origins, Tombstone tombstone) {
+		return origins.getOrDefault(origin(tombstone.pack()), List.of()).stream()
+				.anyMatch(info -> info.deadKeys.contains(tombstone.key()));
+	}
+
+	private void load(String pack, long size) throws IOException {
+		long indexOffset;
+		try (InputStream in = ossTemplate.getObject(bucketName, pack, size - TRAILER_LENGTH, TRAILER_LENGTH)) {
+			indexOffset = ByteBuffer.wrap(in.readNBytes(TRAILER_LENGTH)).getLong();
+		}
+
+		Map<String, Location> entries = new LinkedHashMap<>();
+		List<Tombstone> tombstones = new ArrayList<>();
+		try (DataInputStream in = new DataInputStream(
+				ossTemplate.getObject(bucketName, pack, indexOffset, size - TRAILER_LENGTH - indexOffset))) {
+			int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				String key = in.readUTF();
+				int length = in.readInt();
+				if (length == TOMBSTONE) {
+					tombstones.add(new Tombstone(key, in.readUTF()));
+				}
+				else {
+					entries.put(key, new Location(pack, in.readLong(), length));
+				}
+			}
+		}
+		synchronized (this) {
+			apply(pack, entries, tombstones, indexOffset);
+			// 新生成的 pack 名称需排在已有 pack 之后
+			lastPackTime = Math.max(lastPackTime, packTime(pack));
+		}
+	}
+
+	/**
+	 * 版本的删除记录，以来源标识代替 pack 名称，同时匹配压缩前后的 pack
+	 */
+	private static Tombstone deletion(String objectName, String pack) {
+		return new Tombstone(objectName, origin(pack));
+	}
+
+	/**
+	 * pack 的来源标识（时间戳与随机串），压缩生成的 pack 与原 pack 相同
+	 */
+	private static String origin(String pack) {
+		String name = pack.substring(pack.lastIndexOf('/') + 1);
+		int end = name.indexOf('.');
+		return end < 0 ? name : name.substring(0, end);
+	}
+
+	private static long packTime(String pack) {
+		try {
+			return Long.parseLong(origin(pack).substring(0, PACK_TIME_DIGITS));
+		}
+		catch (RuntimeException e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * 按 pack 时间、来源标识比较版本先后
+	 */
+	private static int compareVersion(String pack, String other) {
+		int result = Long.compare(packTime(pack), packTime(other));
+		return result != 0 ? result : origin(pack).compareTo(origin(other));
+	}
+
+	/**
+	 * 获取或续期压缩租约
+	 * @return 是否持有租约
+	 */
+	private boolean acquireLease() {
+		long now = System.currentTimeMillis();
+		try {
+			Lease lease = readLease();
+			if (lease != null && !instanceId.equals(lease.owner()) && lease.expiresAt() > now) {
+				leaseExpiresAt = 0;
+				return false;
+			}
+			long expiresAt = now + config.getLockLease().toMillis();
+			writeLease(lease, expiresAt);
+			leaseExpiresAt = expiresAt;
+			return true;
+		}
+		catch (S3Exception e) {
+			// 读取与写入之间租约已被其他实例更新
+			if (e.statusCode() == PRECONDITION_FAILED || e.statusCode() == CONFLICT) {
+				leaseExpiresAt = 0;
+				return false;
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * 以读取到的租约为前提写入新的租约，租约不存在时仅在对象仍不存在时写入
+	 */
+	private void writeLease(Lease lease, long expiresAt) {
+		byte[] content = (instanceId + "\n" + expiresAt).getBytes(StandardCharsets.UTF_8);
+		ossTemplate.putObject(bucketName, lockName, new ByteArrayInputStream(content), content.length, "text/plain",
+				lease != null ? lease.eTag() : null, lease != null ? null : "*");
+	}
+
+	private Lease readLease() {
+		String content;
+		String eTag;
+		try {
+			HeadObjectResponse head = ossTemplate.getObjectInfo(bucketName, lockName);
+			eTag = head.eTag();
+			if (head.contentLength() == null || head.contentLength() == 0) {
+				return new Lease(null, 0, eTag);
+			}
+			try (InputStream in = ossTemplate.getObject(bucketName, lockName, 0, head.contentLength(), eTag)) {
+				content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+			}
+		}
+		catch (NoSuchKeyException e) {
+			return null;
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		String[] parts = content.split("\n");
+		try {
+			return new Lease(parts[0], Long.parseLong(parts[1].trim()), eTag);
+		}
+		catch (RuntimeException e) {
+			// 内容无法解析时视为已过期
+			return new Lease(null, 0, eTag);
+		}
+	}
+
+	/**
+	 * 加载其他实例新生成的 pack，并续期或尝试获取压缩租约
+	 */
+	private void maintain() {
+		try {
+			refresh();
+		}
+		catch (Exception e) {
+			log.warn("oss pack store {}/{} refresh failed: {}", bucketName, config.getPrefix(), e.getMessage());
+		}
+		boolean owned = isCompactor();
+		try {
+			if (acquireLease() && !owned) {
+				log.info("oss pack store {}/{} acquired the compaction lease", bucketName, config.getPrefix());
+			}
+		}
+		catch (Exception e) {
+			// 续期失败时不延长本地过期时间，过期后 isCompactor() 返回 false，压缩随之停止
+			log.warn("oss pack store {}/{} lease renewal failed: {}", bucketName, config.getPrefix(), e.getMessage());
+		}
+		if (owned && !isCompactor()) {
+			log.warn("oss pack store {}/{} lost the compaction lease", bucketName, config.getPrefix());
+		}
+	}
+
+	private void releaseLease() {
+		leaseExpiresAt = 0;
+		try {
+			Lease lease = readLease();
+			if (lease != null && instanceId.equals(lease.owner())) {
+				// 写为已过期而不是删除，不会误删其他实例刚接管的租约
+				writeLease(lease, 0);
+			}
+		}
+		catch (S3Exception e) {
+			if (e.statusCode() != PRECONDITION_FAILED && e.statusCode() != CONFLICT) {
+				throw e;
+			}
+		}
+	}
+
+	private String nextPackName() {
+		// pack 名称按时间递增，回放时按时间排序即为写入顺序
+		lastPackTime = Math.max(System.currentTimeMillis(), lastPackTime + 1);
+		return String.format("%s%013d-%s%s", packPrefix, lastPackTime, UUID.randomUUID().toString().substring(0, 8),
+				PACK_SUFFIX);
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		refresh();
+		acquireLease();
+
+		scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "oss-pack");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long flushInterval = config.getFlushInterval().toMillis();
+		scheduler.scheduleWithFixedDelay(() -> {
+			try {
+				flush();
+			}
+			catch (Exception e) {
+				log.warn("oss pack flush failed: {}", e.getMessage());
+			}
+		}, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+		long compactionInterval = config.getCompactionInterval().toMillis();
+		scheduler.scheduleWithFixedDelay(this::compact, compactionInterval, compactionInterval,
+				TimeUnit.MILLISECONDS);
+		long refreshInterval = config.getRefreshInterval().toMillis();
+		scheduler.scheduleWithFixedDelay(this::maintain, refreshInterval, refreshInterval, TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		if (scheduler != null) {
+			scheduler.shutdown();
+		}
+		flush();
+		if (isCompactor()) {
+			// 主动释放租约，其他实例无需等待过期即可接管
+			releaseLease();
+		}
+	}
+
+	/**
+	 * 对象在 pack 中的位置
+	 *
+	 * @param pack pack 名称，未落盘时为空
+	 * @param offset 起始位置
+	 * @param length 长度
+	 */
+	private record Location(String pack, long offset, int length) {
+	}
+
+	/**
+	 * 删除标记
+	 *
+	 * @param key 被删除的 key
+	 * @param pack 被删除版本所在的 pack
+	 */
+	private record Tombstone(String key, String pack) {
+	}
+
+	/**
+	 * 压缩租约
+	 *
+	 * @param owner 持有租约的实例
+	 * @param expiresAt 过期时间（毫秒）
+	 * @param eTag 租约对象的 eTag
+	 */
+	private record Lease(String owner, long expiresAt, String eTag) {
+	}
+
+	/**
+	 * pack 统计信息
+	 */
+	private static class PackInfo {
+
+		private long totalBytes;
+
+		private long liveBytes;
+
+		private final List<Tombstone> tombstones = new ArrayList<>();
+
+		/**
+		 * 仍在 pack 中但已失效的 key，用于判断指向该 pack 的删除标记是否需要保留
+		 */
+		private final Set<String> deadKeys = new HashSet<>();
+
+	}
+
+	/**
+	 * 尚未落盘的写入批次
+	 */
+	private static class Batch {
+
+		private final Buffer data = new Buffer();
+
+		private final Map<String, Location> entries = new LinkedHashMap<>();
+
+		private final List<Tombstone> tombstones = new ArrayList<>();
+
+		private String packName;
+
+		void add(String key, byte[] content) {
+			entries.put(key, new Location(null, data.size(), content.length));
+			data.write(content, 0, content.length);
+		}
+
+		byte[] read(String key) {
+			Location location = entries.get(key);
+			if (location == null) {
+				return null;
+			}
+			return Arrays.copyOfRange(data.array(), (int) location.offset(),
+					(int) location.offset() + location.length());
+		}
+
+		boolean contains(String key) {
+			return entries.containsKey(key);
+		}
+
+		boolean remove(String key) {
+			return entries.remove(key) != null;
+		}
+
+		long size() {
+			return data.size();
+		}
+
+		boolean isEmpty() {
+			return entries.isEmpty() && tombstones.isEmpty();
+		}
+
+		/**
+		 * 追加另一个批次的内容
+		 */
+		void append(Batch other) {
+			other.entries.keySet().forEach(key -> add(key, other.read(key)));
+			tombstones.addAll(other.tombstones);
+		}
+
+		byte[] toPack() {
+			ByteArrayOutputStream out = new ByteArrayOutputStream(data.size() + entries.size() * 64 + 64);
+			try (DataOutputStream dos = new DataOutputStream(out)) {
+				dos.write(data.array(), 0, data.size());
+				dos.writeInt(entries.size() + tombstones.size());
+				for (Map.Entry<String, Location> e : entries.entrySet()) {
+					dos.writeUTF(e.getKey());
+					dos.writeInt(e.getValue().length());
+					dos.writeLong(e.getValue().offset());
+				}
+				for (Tombstone tombstone : tombstones) {
+					dos.writeUTF(tombstone.key());
+					dos.writeInt(TOMBSTONE);
+					dos.writeUTF(tombstone.pack());
+				}
+				dos.writeLong(data.size());
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			return out.toByteArray();
+		}
+
+	}
+
+	/**
+	 * 可直接访问底层数组的缓冲区
+	 */
+	private static class Buffer extends ByteArrayOutputStream {
+
+		byte[] array() {
+			return buf;
+		}
+
+	}
+
+}
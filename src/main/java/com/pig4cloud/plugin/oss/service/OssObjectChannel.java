@@ -0,0 +1,241 @@
+/*
+ *    Copyright (c) 2018-2025, lengleng All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * Neither the name of the pig4cloud.com developer nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ * Author: lengleng (wangiegie@gmail.com)
+ */
+
+package com.pig4cloud.plugin.oss.service;
+
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 远程对象的只读随机访问通道
+ * <p>
+ * 按固定大小的块通过 Range GET 读取对象，最近读取的块保存在 LRU 缓存中。连续顺序读取时预读块数逐次翻倍直至上限，
+ * 随机跳转后恢复为单块读取，只传输实际需要的字节。每次读取都携带打开时的 eTag（If-Match），对象在读取期间被覆盖时抛出
+ * IOException，避免拼接出新旧版本混合的内容。
+ *
+ * @author lengleng
+ * @date 2026/10/18
+ */
+public class OssObjectChannel implements SeekableByteChannel {
+
+	/**
+	 * If-Match 校验失败对应的 HTTP 状态码
+	 */
+	private static final int PRECONDITION_FAILED = 412;
+
+	private final OssTemplate ossTemplate;
+
+	private final String bucketName;
+
+	private final String objectName;
+
+	private final long size;
+
+	private final String eTag;
+
+	private final int blockSize;
+
+	private final int maxReadAheadBlocks;
+
+	private final Map<Long, byte[]> blocks;
+
+	private long position;
+
+	private boolean open = true;
+
+	/**
+	 * 上一次远程读取结束处的块序号，用于判断是否顺序读取
+	 */
+	private long nextSequentialBlock = -1;
+
+	/**
+	 * 当前预读块数
+	 */
+	private int readAheadBlocks = 1;
+
+	/**
+	 * 远程读取次数
+	 */
+	private long fetchCount;
+
+	/**
+	 * 远程读取字节数
+	 */
+	private long fetchedBytes;
+
+	OssObjectChannel(OssTemplate ossTemplate, String bucketName, String objectName, long size, String eTag,
+			long blockSize, int cacheBlocks, int maxReadAheadBlocks) {
+		// 单次 Range 读取（块大小 × 预读块数）需能放入一个数组
+		if (blockSize <= 0 || blockSize * Math.max(1, maxReadAheadBlocks) > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Invalid channel block size " + blockSize + " with max read-ahead "
+					+ maxReadAheadBlocks + " blocks, block size x read-ahead must be within 2 GB");
+		}
+		this.ossTemplate = ossTemplate;
+		this.bucketName = bucketName;
+		this.objectName = objectName;
+		this.size = size;
+		this.eTag = eTag;
+		this.blockSize = (int) blockSize;
+		this.maxReadAheadBlocks = Math.max(1, maxReadAheadBlocks);
+		int capacity = Math.max(cacheBlocks, this.maxReadAheadBlocks);
+		this.blocks = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	@Override
+	public synchronized int read(ByteBuffer dst) throws IOException {
+		ensureOpen();
+		if (position >= size) {
+			return -1;
+		}
+
+		int total = 0;
+		while (dst.hasRemaining() && position < size) {
+			long blockIndex = position / blockSize;
+			byte[] block = block(blockIndex);
+			int offset = (int) (position - blockIndex * blockSize);
+			int n = Math.min(dst.remaining(), block.length - offset);
+			dst.put(block, offset, n);
+			position += n;
+			total += n;
+		}
+		return total;
+	}
+
+	@Override
+	public int write(ByteBuffer src) {
+		throw new NonWritableChannelException();
+	}
+
+	@Override
+	public synchronized long position() throws IOException {
+		ensureOpen();
+		return position;
+	}
+
+	@Override
+	public synchronized SeekableByteChannel position(long newPosition) throws IOException {
+		ensureOpen();
+		if (newPosition < 0) {
+			throw new IllegalArgumentException("position must not be negative");
+		}
+		this.position = newPosition;
+		return this;
+	}
+
+	@Override
+	public long size() throws IOException {
+		ensureOpen();
+		return size;
+	}
+
+	@Override
+	public SeekableByteChannel truncate(long size) {
+		throw new NonWritableChannelException();
+	}
+
+	@Override
+	public synchronized boolean isOpen() {
+		return open;
+	}
+
+	@Override
+	public synchronized void close() {
+		open = false;
+		blocks.clear();
+	}
+
+	/**
+	 * @return 远程 Range GET 次数
+	 */
+	public synchronized long getFetchCount() {
+		return fetchCount;
+	}
+
+	/**
+	 * @return 远程读取的字节数
+	 */
+	public synchronized long getFetchedBytes() {
+		return fetchedBytes;
+	}
+
+	private byte[] block(long blockIndex) throws IOException {
+		byte[] block = blocks.get(blockIndex);
+		if (block != null) {
+			return block;
+		}
+
+		readAheadBlocks = blockIndex == nextSequentialBlock ? Math.min(maxReadAheadBlocks, readAheadBlocks * 2) : 1;
+		long lastBlock = (size - 1) / blockSize;
+		long endBlock = Math.min(lastBlock + 1, blockIndex + readAheadBlocks);
+		// 预读范围内已缓存的块无需重复读取
+		for (long i = blockIndex + 1; i < endBlock; i++) {
+			if (blocks.containsKey(i)) {
+				endBlock = i;
+				break;
+			}
+		}
+
+		long start = blockIndex * blockSize;
+		long end = Math.min(size, endBlock * blockSize);
+		byte[] data;
+		try (InputStream in = ossTemplate.getObject(bucketName, objectName, start, end - start, eTag)) {
+			data = in.readNBytes((int) (end - start));
+		}
+		catch (S3Exception e) {
+			if (e.statusCode() == PRECONDITION_FAILED) {
+				throw new IOException(
+						"Object " + bucketName + "/" + objectName + " changed since the channel was opened", e);
+			}
+			throw e;
+		}
+		if (data.length != end - start) {
+			throw new IOException("Unexpected end of object " + bucketName + "/" + objectName);
+		}
+		fetchCount++;
+		fetchedBytes += data.length;
+		nextSequentialBlock = endBlock;
+
+		for (long i = blockIndex; i < endBlock; i++) {
+			int from = (int) ((i - blockIndex) * blockSize);
+			int to = (int) Math.min(data.length, from + (long) blockSize);
+			byte[] b = new byte[to - from];
+			System.arraycopy(data, from, b, 0, b.length);
+			blocks.put(i, b);
+		}
+		return blocks.get(blockIndex);
+	}
+
+	private void ensureOpen() throws ClosedChannelException {
+		if (!open) {
+			throw new ClosedChannelException();
+		}
+	}
+
+}
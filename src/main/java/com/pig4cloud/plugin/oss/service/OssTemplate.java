@@ -18,14 +18,25 @@
 package com.pig4cloud.plugin.oss.service;
 
 import com.pig4cloud.plugin.oss.OssProperties;
+import com.pig4cloud.plugin.oss.index.OssIndexManager;
+import com.pig4cloud.plugin.oss.index.OssObjectIndex;
+import com.pig4cloud.plugin.oss.interceptor.OssInterceptor;
+import com.pig4cloud.plugin.oss.interceptor.OssInterceptorChain;
+import com.pig4cloud.plugin.oss.interceptor.OssOperationType;
+import com.pig4cloud.plugin.oss.limit.OssRateLimiter;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.exception.SdkException;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.core.sync.ResponseTransformer;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
 import software.amazon.awssdk.services.s3.S3Configuration;
 import software.amazon.awssdk.services.s3.model.*;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
@@ -34,13 +45,31 @@ import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequ
 import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * aws-s3 通用存储操作 支持所有兼容s3协议的云存储: {阿里云OSS，腾讯云COS，七牛云，京东云，minio 等}
@@ -51,14 +80,50 @@ import java.util.stream.Collectors;
  * @date 2020/5/23 6:36 上午
  * @since 1.0
  */
+@Slf4j
 @RequiredArgsConstructor
-public class OssTemplate implements InitializingBean {
+public class OssTemplate implements InitializingBean, DisposableBean {
+
+	/**
+	 * 批量签名时开始并行处理的数量
+	 */
+	private static final int PARALLEL_PRESIGN_THRESHOLD = 64;
 
 	private final OssProperties ossProperties;
 
-	private S3Client s3Client;
+	private volatile S3Client s3Client;
+
+	private volatile S3Presigner s3Presigner;
+
+	/**
+	 * 客户端限流，未开启时为空
+	 */
+	private OssRateLimiter rateLimiter;
+
+	/**
+	 * 本地对象索引，未开启时为空
+	 */
+	private OssIndexManager indexManager;
 
-	private S3Presigner s3Presigner;
+	/**
+	 * HEAD 请求合并
+	 */
+	private final SingleFlight<String, HeadObjectResponse> headObjectFlight = new SingleFlight<>();
+
+	/**
+	 * GET 请求合并，结果为缓冲后的对象内容
+	 */
+	private final SingleFlight<String, byte[]> getObjectFlight = new SingleFlight<>();
+
+	/**
+	 * 直接复用 leader 缓冲内容的 GET 次数，对象过大而各自下载的等待者不计入
+	 */
+	private final LongAdder coalescedGets = new LongAdder();
+
+	/**
+	 * 操作拦截器
+	 */
+	private OssInterceptorChain interceptorChain = new OssInterceptorChain(Collections.emptyList());
 
 	/**
 	 * 创建bucket
@@ -67,7 +132,8 @@ public class OssTemplate implements InitializingBean {
 	public void createBucket(String bucketName) {
 		if (!headBucket(bucketName)) {
 			CreateBucketRequest createBucketRequest = CreateBucketRequest.builder().bucket(bucketName).build();
-			s3Client.createBucket(createBucketRequest);
+			execute(OssOperationType.CREATE_BUCKET, bucketName, null,
+					() -> s3Client().createBucket(createBucketRequest));
 		}
 	}
 
@@ -79,7 +145,7 @@ public class OssTemplate implements InitializingBean {
 	public boolean headBucket(String bucketName) {
 		try {
 			HeadBucketRequest headBucketRequest = HeadBucketRequest.builder().bucket(bucketName).build();
-			s3Client.headBucket(headBucketRequest);
+			execute(OssOperationType.HEAD_BUCKET, bucketName, null, () -> s3Client().headBucket(headBucketRequest));
 			return true;
 		}
 		catch (NoSuchBucketException e) {
@@ -96,7 +162,8 @@ public class OssTemplate implements InitializingBean {
 	 * Documentation</a>
 	 */
 	public List<Bucket> getAllBuckets() {
-		ListBucketsResponse listBucketsResponse = s3Client.listBuckets();
+		ListBucketsResponse listBucketsResponse = execute(OssOperationType.LIST_BUCKETS, null, null,
+				() -> s3Client().listBuckets());
 		return listBucketsResponse.buckets();
 	}
 
@@ -118,7 +185,10 @@ public class OssTemplate implements InitializingBean {
 	 */
 	public void removeBucket(String bucketName) {
 		DeleteBucketRequest deleteBucketRequest = DeleteBucketRequest.builder().bucket(bucketName).build();
-		s3Client.deleteBucket(deleteBucketRequest);
+		execute(OssOperationType.REMOVE_BUCKET, bucketName, null, () -> s3Client().deleteBucket(deleteBucketRequest));
+		if (indexManager != null) {
+			indexManager.onRemoveBucket(bucketName);
+		}
 	}
 
 	/**
@@ -133,10 +203,77 @@ public class OssTemplate implements InitializingBean {
 		ListObjectsV2Request listObjectsRequest = ListObjectsV2Request.builder().bucket(bucketName).prefix(prefix)
 				.build();
 
-		ListObjectsV2Response listObjectsResponse = s3Client.listObjectsV2(listObjectsRequest);
+		ListObjectsV2Response listObjectsResponse = execute(OssOperationType.LIST_OBJECTS, bucketName, prefix,
+				() -> s3Client().listObjectsV2(listObjectsRequest));
 		return listObjectsResponse.contents();
 	}
 
+	/**
+	 * 根据文件前置查询全部文件，自动翻页
+	 * @param bucketName bucket名称
+	 * @param prefix 前缀，为空时列出整个 bucket
+	 * @return 按需分页加载的文件列表
+	 * @see <a href=
+	 * "http://docs.aws.amazon.com/goto/WebAPI/s3-2006-03-01/ListObjectsV2">AWS API
+	 * Documentation</a>
+	 */
+	public Iterable<S3Object> listAllObjects(String bucketName, String prefix) {
+		ListObjectsV2Request listObjectsRequest = ListObjectsV2Request.builder().bucket(bucketName).prefix(prefix)
+				.build();
+
+		// 每一页作为一次 LIST_OBJECTS 操作经过拦截器
+		return () -> new Iterator<>() {
+
+			private Iterator<S3Object> page = Collections.emptyIterator();
+
+			private String continuationToken;
+
+			private boolean lastPage;
+
+			@Override
+			public boolean hasNext() {
+				while (!page.hasNext() && !lastPage) {
+					ListObjectsV2Request pageRequest = listObjectsRequest.toBuilder()
+							.continuationToken(continuationToken).build();
+					ListObjectsV2Response response = execute(OssOperationType.LIST_OBJECTS, bucketName, prefix,
+							() -> s3Client().listObjectsV2(pageRequest));
+					page = response.contents().iterator();
+					continuationToken = response.nextContinuationToken();
+					lastPage = !Boolean.TRUE.equals(response.isTruncated()) || continuationToken == null;
+				}
+				return page.hasNext();
+			}
+
+			@Override
+			public S3Object next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return page.next();
+			}
+
+		};
+	}
+
+	/**
+	 * 获取 bucket 的本地对象索引，可在本地完成前缀查询、计数与大小汇总
+	 * @param bucketName bucket名称
+	 * @return 索引，未开启索引、该 bucket 未配置或首次同步未完成时为空
+	 */
+	public Optional<OssObjectIndex> getObjectIndex(String bucketName) {
+		return indexManager == null ? Optional.empty()
+				: indexManager.getIndex(bucketName).filter(OssObjectIndex::isReady);
+	}
+
+	/**
+	 * 开始本地对象索引的后台同步，未开启索引时无操作
+	 */
+	public void startIndexSync() {
+		if (indexManager != null) {
+			indexManager.start();
+		}
+	}
+
 	/**
 	 * 获取文件外链，只用于下载
 	 * @param bucketName bucket名称
@@ -161,10 +298,42 @@ public class OssTemplate implements InitializingBean {
 		GetObjectPresignRequest getObjectPresignRequest = GetObjectPresignRequest.builder().signatureDuration(expires)
 				.getObjectRequest(getObjectRequest).build();
 
-		PresignedGetObjectRequest presignedGetObjectRequest = s3Presigner.presignGetObject(getObjectPresignRequest);
+		PresignedGetObjectRequest presignedGetObjectRequest = execute(OssOperationType.PRESIGN, bucketName, objectName,
+				() -> s3Presigner().presignGetObject(getObjectPresignRequest));
 		return presignedGetObjectRequest.url().toString();
 	}
 
+	/**
+	 * 批量获取文件外链，只用于下载
+	 * @param bucketName bucket名称
+	 * @param objectNames 文件名称列表
+	 * @param minutes 过期时间，单位分钟,请注意该值必须小于7天
+	 * @return 文件名称与 url 的映射，顺序与入参一致
+	 */
+	public Map<String, String> getObjectURLs(String bucketName, List<String> objectNames, int minutes) {
+		return getObjectURLs(bucketName, objectNames, Duration.ofMinutes(minutes));
+	}
+
+	/**
+	 * 批量获取文件外链，只用于下载
+	 * <p>
+	 * 签名为纯本地计算，整批共用同一个 presigner，数量达到 {@value #PARALLEL_PRESIGN_THRESHOLD} 时并行签名。
+	 * @param bucketName bucket名称
+	 * @param objectNames 文件名称列表
+	 * @param expires 过期时间,请注意该值必须小于7天
+	 * @return 文件名称与 url 的映射，顺序与入参一致
+	 */
+	public Map<String, String> getObjectURLs(String bucketName, List<String> objectNames, Duration expires) {
+		S3Presigner presigner = s3Presigner();
+		GetObjectRequest template = GetObjectRequest.builder().bucket(bucketName).build();
+
+		return execute(OssOperationType.PRESIGN, bucketName, null, () -> presignAll(objectNames, objectName -> {
+			GetObjectRequest getObjectRequest = template.toBuilder().key(objectName).build();
+			return presigner.presignGetObject(b -> b.signatureDuration(expires).getObjectRequest(getObjectRequest))
+					.url().toString();
+		}));
+	}
+
 	/**
 	 * 获取文件上传外链，只用于上传
 	 * @param bucketName bucket名称
@@ -189,7 +358,8 @@ public class OssTemplate implements InitializingBean {
 		PutObjectPresignRequest putObjectPresignRequest = PutObjectPresignRequest.builder().signatureDuration(expires)
 				.putObjectRequest(putObjectRequest).build();
 
-		PresignedPutObjectRequest presignedPutObjectRequest = s3Presigner.presignPutObject(putObjectPresignRequest);
+		PresignedPutObjectRequest presignedPutObjectRequest = execute(OssOperationType.PRESIGN, bucketName, objectName,
+				() -> s3Presigner().presignPutObject(putObjectPresignRequest));
 		return presignedPutObjectRequest.url().toString();
 	}
 
@@ -244,9 +414,99 @@ public class OssTemplate implements InitializingBean {
 	 * API Documentation</a>
 	 */
 	public InputStream getObject(String bucketName, String objectName) {
+		return interceptorChain.executeStream(OssOperationType.GET_OBJECT, bucketName, objectName,
+				() -> fetchObject(bucketName, objectName));
+	}
+
+	private InputStream fetchObject(String bucketName, String objectName) {
 		GetObjectRequest getObjectRequest = GetObjectRequest.builder().bucket(bucketName).key(objectName).build();
 
-		return s3Client.getObject(getObjectRequest, ResponseTransformer.toInputStream());
+		if (!ossProperties.getCoalesce().isEnable()) {
+			return download(getObjectRequest);
+		}
+
+		// leader 下载到的对象超过缓冲上限时，直接把流交给 leader 自己使用
+		AtomicReference<InputStream> leaderStream = new AtomicReference<>();
+		AtomicBoolean leader = new AtomicBoolean();
+		byte[] content = getObjectFlight.execute(flightKey(bucketName, objectName), () -> {
+			leader.set(true);
+			ResponseInputStream<GetObjectResponse> stream = s3Client().getObject(getObjectRequest,
+					ResponseTransformer.toInputStream());
+			Long contentLength = stream.response().contentLength();
+			if (contentLength == null || contentLength > ossProperties.getCoalesce().getMaxBufferSize().toBytes()) {
+				leaderStream.set(limitDownload(stream));
+				return null;
+			}
+			try (InputStream in = limitDownload(stream)) {
+				return in.readAllBytes();
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+
+		if (content != null) {
+			if (!leader.get()) {
+				coalescedGets.increment();
+			}
+			return new ByteArrayInputStream(content);
+		}
+		if (leaderStream.get() != null) {
+			return leaderStream.get();
+		}
+		// 对象过大无法共享，等待者各自下载
+		return download(getObjectRequest);
+	}
+
+	/**
+	 * 获取文件的指定范围
+	 * @param bucketName bucket名称
+	 * @param objectName 文件名称
+	 * @param offset 起始位置
+	 * @param length 读取长度，必须大于 0
+	 * @return 二进制流
+	 * @see <a href= "http://docs.aws.amazon.com/goto/WebAPI/s3-2006-03-01/GetObject">AWS
+	 * API Documentation</a>
+	 */
+	public InputStream getObject(String bucketName, String objectName, long offset, long length) {
+		return getObject(bucketName, objectName, offset, length, null);
+	}
+
+	/**
+	 * 获取文件的指定范围，对象的 eTag 与期望值不一致时请求失败（412 Precondition Failed）
+	 * @param bucketName bucket名称
+	 * @param objectName 文件名称
+	 * @param offset 起始位置
+	 * @param length 读取长度，必须大于 0
+	 * @param eTag 期望的 eTag，为空时不校验
+	 * @return 二进制流
+	 * @see <a href= "http://docs.aws.amazon.com/goto/WebAPI/s3-2006-03-01/GetObject">AWS
+	 * API Documentation</a>
+	 */
+	public InputStream getObject(String bucketName, String objectName, long offset, long length, String eTag) {
+		if (offset < 0 || length <= 0) {
+			throw new IllegalArgumentException("Invalid range: offset=" + offset + ", length=" + length);
+		}
+		GetObjectRequest getObjectRequest = GetObjectRequest.builder().bucket(bucketName).key(objectName)
+				.range("bytes=" + offset + "-" + (offset + length - 1)).ifMatch(eTag).build();
+
+		return interceptorChain.executeStream(OssOperationType.GET_OBJECT, bucketName, objectName,
+				() -> download(getObjectRequest));
+	}
+
+	/**
+	 * 打开文件的随机访问通道，按需通过 Range GET 读取，适合只读取部分内容的场景（如 Parquet footer、ZIP 目录）。
+	 * 读取时校验打开时的 eTag，对象被覆盖后读取会抛出 IOException
+	 * @throws IllegalArgumentException 块大小不大于 0，或块大小与最大预读块数的乘积超过 2 GB
+	 * @param bucketName bucket名称
+	 * @param objectName 文件名称
+	 * @return 只读通道
+	 */
+	public OssObjectChannel openObjectChannel(String bucketName, String objectName) {
+		OssProperties.Channel channel = ossProperties.getChannel();
+		HeadObjectResponse head = getObjectInfo(bucketName, objectName);
+		return new OssObjectChannel(this, bucketName, objectName, head.contentLength(), head.eTag(),
+				channel.getBlockSize().toBytes(), channel.getCacheBlocks(), channel.getMaxReadAheadBlocks());
 	}
 
 	/**
@@ -285,10 +545,149 @@ public class OssTemplate implements InitializingBean {
 	 */
 	public PutObjectResponse putObject(String bucketName, String objectName, InputStream stream, long size,
 			String contextType) {
+		return putObject(bucketName, objectName, stream, size, contextType, null, null);
+	}
+
+	/**
+	 * 条件上传文件，前置条件不满足时请求失败（412 Precondition Failed），并发的条件写入可能返回 409 Conflict
+	 * @param bucketName bucket名称
+	 * @param objectName 文件名称
+	 * @param stream 文件流
+	 * @param size 大小
+	 * @param contextType 类型
+	 * @param ifMatch 对象当前的 eTag 需与之一致，为空时不校验
+	 * @param ifNoneMatch 为 "*" 时仅在对象不存在时写入，为空时不校验
+	 * @see <a href= "http://docs.aws.amazon.com/goto/WebAPI/s3-2006-03-01/PutObject">AWS
+	 * API Documentation</a>
+	 */
+	public PutObjectResponse putObject(String bucketName, String objectName, InputStream stream, long size,
+			String contextType, String ifMatch, String ifNoneMatch) {
 		PutObjectRequest putObjectRequest = PutObjectRequest.builder().bucket(bucketName).key(objectName)
-				.contentType(contextType).contentLength(size).build();
+				.contentType(contextType).contentLength(size).ifMatch(ifMatch).ifNoneMatch(ifNoneMatch).build();
+
+		InputStream body = rateLimiter != null ? rateLimiter.limitUpload(stream) : stream;
+		PutObjectResponse response = interceptorChain.execute(OssOperationType.PUT_OBJECT, bucketName, objectName,
+				bytes -> {
+					bytes.accept(size);
+					return s3Client().putObject(putObjectRequest, RequestBody.fromInputStream(body, size));
+				});
+		forgetFlights(bucketName, objectName);
+		if (indexManager != null) {
+			indexManager.onPut(bucketName, objectName, size, response.eTag());
+		}
+		return response;
+	}
 
-		return s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(stream, size));
+	/**
+	 * 初始化分片上传，分片可由客户端通过 {@link #getUploadPartURLs} 获取的外链直接上传
+	 * @param bucketName bucket名称
+	 * @param objectName 文件名称
+	 * @param contextType 文件类型，可为空
+	 * @return uploadId
+	 * @see <a href=
+	 * "http://docs.aws.amazon.com/goto/WebAPI/s3-2006-03-01/CreateMultipartUpload">AWS API
+	 * Documentation</a>
+	 */
+	public String createMultipartUpload(String bucketName, String objectName, String contextType) {
+		CreateMultipartUploadRequest createMultipartUploadRequest = CreateMultipartUploadRequest.builder()
+				.bucket(bucketName).key(objectName).contentType(contextType).build();
+
+		return execute(OssOperationType.CREATE_MULTIPART_UPLOAD, bucketName, objectName,
+				() -> s3Client().createMultipartUpload(createMultipartUploadRequest)).uploadId();
+	}
+
+	/**
+	 * 批量获取分片上传外链
+	 * @param bucketName bucket名称
+	 * @param objectName 文件名称
+	 * @param uploadId uploadId
+	 * @param partNumbers 分片序号列表，取值 1-10000
+	 * @param minutes 过期时间，单位分钟,请注意该值必须小于7天
+	 * @return 分片序号与 url 的映射，顺序与入参一致
+	 */
+	public Map<Integer, String> getUploadPartURLs(String bucketName, String objectName, String uploadId,
+			List<Integer> partNumbers, int minutes) {
+		return getUploadPartURLs(bucketName, objectName, uploadId, partNumbers, Duration.ofMinutes(minutes));
+	}
+
+	/**
+	 * 批量获取分片上传外链
+	 * @param bucketName bucket名称
+	 * @param objectName 文件名称
+	 * @param uploadId uploadId
+	 * @param partNumbers 分片序号列表，取值 1-10000
+	 * @param expires 过期时间,请注意该值必须小于7天
+	 * @return 分片序号与 url 的映射，顺序与入参一致
+	 */
+	public Map<Integer, String> getUploadPartURLs(String bucketName, String objectName, String uploadId,
+			List<Integer> partNumbers, Duration expires) {
+		S3Presigner presigner = s3Presigner();
+		UploadPartRequest template = UploadPartRequest.builder().bucket(bucketName).key(objectName).uploadId(uploadId)
+				.build();
+
+		return execute(OssOperationType.PRESIGN, bucketName, objectName, () -> presignAll(partNumbers, partNumber -> {
+			UploadPartRequest uploadPartRequest = template.toBuilder().partNumber(partNumber).build();
+			return presigner.presignUploadPart(b -> b.signatureDuration(expires).uploadPartRequest(uploadPartRequest))
+					.url().toString();
+		}));
+	}
+
+	/**
+	 * 完成分片上传
+	 * @param bucketName bucket名称
+	 * @param objectName 文件名称
+	 * @param uploadId uploadId
+	 * @param partETags 分片序号与上传分片时返回的 ETag
+	 * @return 完成结果
+	 * @see <a href=
+	 * "http://docs.aws.amazon.com/goto/WebAPI/s3-2006-03-01/CompleteMultipartUpload">AWS API
+	 * Documentation</a>
+	 */
+	public CompleteMultipartUploadResponse completeMultipartUpload(String bucketName, String objectName,
+			String uploadId, Map<Integer, String> partETags) {
+		List<CompletedPart> parts = new TreeMap<>(partETags).entrySet().stream()
+				.map(e -> CompletedPart.builder().partNumber(e.getKey()).eTag(e.getValue()).build())
+				.collect(Collectors.toList());
+
+		CompleteMultipartUploadRequest completeMultipartUploadRequest = CompleteMultipartUploadRequest.builder()
+				.bucket(bucketName).key(objectName).uploadId(uploadId)
+				.multipartUpload(CompletedMultipartUpload.builder().parts(parts).build()).build();
+
+		CompleteMultipartUploadResponse response = execute(OssOperationType.COMPLETE_MULTIPART_UPLOAD, bucketName,
+				objectName, () -> s3Client().completeMultipartUpload(completeMultipartUploadRequest));
+		forgetFlights(bucketName, objectName);
+		if (indexManager != null && indexManager.isIndexed(bucketName)) {
+			// 完成响应中不包含对象大小；上传已成功，HEAD 失败时不影响结果，由下次全量同步修正索引
+			HeadObjectRequest headObjectRequest = HeadObjectRequest.builder().bucket(bucketName).key(objectName)
+					.build();
+			try {
+				HeadObjectResponse head = execute(OssOperationType.HEAD_OBJECT, bucketName, objectName,
+						() -> s3Client().headObject(headObjectRequest));
+				indexManager.onPut(bucketName, objectName, head.contentLength(), response.eTag());
+			}
+			catch (SdkException e) {
+				log.warn("oss index update after multipart upload of {}/{} failed: {}", bucketName, objectName,
+						e.getMessage());
+			}
+		}
+		return response;
+	}
+
+	/**
+	 * 取消分片上传，释放已上传的分片
+	 * @param bucketName bucket名称
+	 * @param objectName 文件名称
+	 * @param uploadId uploadId
+	 * @see <a href=
+	 * "http://docs.aws.amazon.com/goto/WebAPI/s3-2006-03-01/AbortMultipartUpload">AWS API
+	 * Documentation</a>
+	 */
+	public void abortMultipartUpload(String bucketName, String objectName, String uploadId) {
+		AbortMultipartUploadRequest abortMultipartUploadRequest = AbortMultipartUploadRequest.builder()
+				.bucket(bucketName).key(objectName).uploadId(uploadId).build();
+
+		execute(OssOperationType.ABORT_MULTIPART_UPLOAD, bucketName, objectName,
+				() -> s3Client().abortMultipartUpload(abortMultipartUploadRequest));
 	}
 
 	/**
@@ -302,7 +701,13 @@ public class OssTemplate implements InitializingBean {
 	public HeadObjectResponse getObjectInfo(String bucketName, String objectName) {
 		HeadObjectRequest headObjectRequest = HeadObjectRequest.builder().bucket(bucketName).key(objectName).build();
 
-		return s3Client.headObject(headObjectRequest);
+		return execute(OssOperationType.HEAD_OBJECT, bucketName, objectName, () -> {
+			if (!ossProperties.getCoalesce().isEnable()) {
+				return s3Client().headObject(headObjectRequest);
+			}
+			return headObjectFlight.execute(flightKey(bucketName, objectName),
+					() -> s3Client().headObject(headObjectRequest));
+		});
 	}
 
 	/**
@@ -317,23 +722,170 @@ public class OssTemplate implements InitializingBean {
 		DeleteObjectRequest deleteObjectRequest = DeleteObjectRequest.builder().bucket(bucketName).key(objectName)
 				.build();
 
-		s3Client.deleteObject(deleteObjectRequest);
+		execute(OssOperationType.REMOVE_OBJECT, bucketName, objectName,
+				() -> s3Client().deleteObject(deleteObjectRequest));
+		forgetFlights(bucketName, objectName);
+		if (indexManager != null) {
+			indexManager.onRemove(bucketName, objectName);
+		}
 	}
 
-	@Override
-	public void afterPropertiesSet() throws Exception {
-		// 创建 S3 客户端
-		this.s3Client = S3Client.builder().endpointOverride(URI.create(ossProperties.getEndpoint()))
+	/**
+	 * 获取被合并（未实际发出）的 HEAD 请求次数
+	 * @return 合并次数
+	 */
+	public long getCoalescedHeadCount() {
+		return headObjectFlight.getSharedCount();
+	}
+
+	/**
+	 * 获取被合并（未实际发出）的 GET 请求次数
+	 * @return 合并次数
+	 */
+	public long getCoalescedGetCount() {
+		return coalescedGets.sum();
+	}
+
+	/**
+	 * 获取客户端限流器
+	 * @return 限流器，未开启限流时为空
+	 */
+	public Optional<OssRateLimiter> getRateLimiter() {
+		return Optional.ofNullable(rateLimiter);
+	}
+
+	/**
+	 * 批量签名，数量较多时并行处理
+	 * @param items 待签名项
+	 * @param signer 单项签名
+	 * @return 签名项与 url 的映射，顺序与入参一致
+	 */
+	private <T> Map<T, String> presignAll(List<T> items, Function<T, String> signer) {
+		IntStream indexes = IntStream.range(0, items.size());
+		if (items.size() >= PARALLEL_PRESIGN_THRESHOLD) {
+			indexes = indexes.parallel();
+		}
+		String[] urls = new String[items.size()];
+		indexes.forEach(i -> urls[i] = signer.apply(items.get(i)));
+
+		Map<T, String> result = new LinkedHashMap<>(items.size() * 4 / 3 + 1);
+		for (int i = 0; i < urls.length; i++) {
+			result.put(items.get(i), urls[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * 设置操作拦截器
+	 * @param interceptors 拦截器，按列表顺序执行
+	 */
+	public void setInterceptors(List<OssInterceptor> interceptors) {
+		this.interceptorChain = new OssInterceptorChain(interceptors);
+	}
+
+	private <T> T execute(OssOperationType type, String bucketName, String objectName, Supplier<T> call) {
+		return interceptorChain.execute(type, bucketName, objectName, bytes -> call.get());
+	}
+
+	private InputStream download(GetObjectRequest getObjectRequest) {
+		ResponseInputStream<GetObjectResponse> stream = s3Client().getObject(getObjectRequest,
+				ResponseTransformer.toInputStream());
+		return limitDownload(stream);
+	}
+
+	private InputStream limitDownload(InputStream stream) {
+		return rateLimiter != null ? rateLimiter.limitDownload(stream) : stream;
+	}
+
+	private static String flightKey(String bucketName, String objectName) {
+		return bucketName + '/' + objectName;
+	}
+
+	/**
+	 * 写入返回后，之后的读取不再加入写入前发起的合并请求，保证读到自己的写入
+	 */
+	private void forgetFlights(String bucketName, String objectName) {
+		String key = flightKey(bucketName, objectName);
+		headObjectFlight.forget(key);
+		getObjectFlight.forget(key);
+	}
+
+	/**
+	 * 预热连接池：并发发起若干轻量请求，提前完成客户端创建、DNS 解析与 TLS 握手
+	 * @param connections 并发连接数
+	 */
+	public void warmUp(int connections) {
+		S3Client client = s3Client();
+		s3Presigner();
+
+		String bucketName = ossProperties.getBucketName();
+		Runnable ping = () -> {
+			try {
+				if (bucketName != null) {
+					client.headBucket(HeadBucketRequest.builder().bucket(bucketName).build());
+				}
+				else {
+					client.listBuckets();
+				}
+			}
+			catch (Exception e) {
+				log.debug("oss warm up request failed: {}", e.getMessage());
+			}
+		};
+
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, connections));
+		try {
+			CompletableFuture.allOf(IntStream.range(0, Math.max(1, connections))
+					.mapToObj(i -> CompletableFuture.runAsync(ping, executor)).toArray(CompletableFuture[]::new))
+					.join();
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	private S3Client s3Client() {
+		S3Client client = this.s3Client;
+		if (client == null) {
+			synchronized (this) {
+				client = this.s3Client;
+				if (client == null) {
+					client = this.s3Client = createS3Client();
+				}
+			}
+		}
+		return client;
+	}
+
+	private S3Presigner s3Presigner() {
+		S3Presigner presigner = this.s3Presigner;
+		if (presigner == null) {
+			synchronized (this) {
+				presigner = this.s3Presigner;
+				if (presigner == null) {
+					presigner = this.s3Presigner = createS3Presigner();
+				}
+			}
+		}
+		return presigner;
+	}
+
+	private S3Client createS3Client() {
+		S3ClientBuilder s3ClientBuilder = S3Client.builder().endpointOverride(URI.create(ossProperties.getEndpoint()))
 				.region(Region.of(ossProperties.getRegion() != null ? ossProperties.getRegion() : "us-east-1"))
 				.credentialsProvider(StaticCredentialsProvider
 						.create(AwsBasicCredentials.create(ossProperties.getAccessKey(), ossProperties.getSecretKey())))
 				.serviceConfiguration(
 						S3Configuration.builder().pathStyleAccessEnabled(ossProperties.getPathStyleAccess())
-								.chunkedEncodingEnabled(ossProperties.getChunkedEncodingEnabled()).build())
-				.build();
+								.chunkedEncodingEnabled(ossProperties.getChunkedEncodingEnabled()).build());
+		if (rateLimiter != null) {
+			s3ClientBuilder.overrideConfiguration(c -> c.addExecutionInterceptor(rateLimiter));
+		}
+		return s3ClientBuilder.build();
+	}
 
-		// 创建 S3 Presigner
-		this.s3Presigner = S3Presigner.builder().endpointOverride(URI.create(ossProperties.getEndpoint()))
+	private S3Presigner createS3Presigner() {
+		return S3Presigner.builder().endpointOverride(URI.create(ossProperties.getEndpoint()))
 				.region(Region.of(ossProperties.getRegion() != null ? ossProperties.getRegion() : "us-east-1"))
 				.credentialsProvider(StaticCredentialsProvider
 						.create(AwsBasicCredentials.create(ossProperties.getAccessKey(), ossProperties.getSecretKey())))
@@ -342,4 +894,40 @@ public class OssTemplate implements InitializingBean {
 				.build();
 	}
 
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		if (ossProperties.getRateLimit().isEnable()) {
+			this.rateLimiter = new OssRateLimiter(ossProperties.getRateLimit());
+		}
+
+		// 延迟初始化时，客户端在首次使用时创建
+		if (!ossProperties.isLazyInit()) {
+			s3Client();
+			s3Presigner();
+		}
+
+		OssProperties.Index index = ossProperties.getIndex();
+		if (index.isEnable()) {
+			List<String> buckets = new ArrayList<>(index.getBuckets());
+			if (buckets.isEmpty() && ossProperties.getBucketName() != null) {
+				buckets.add(ossProperties.getBucketName());
+			}
+			this.indexManager = new OssIndexManager(buckets, index.getResyncInterval(),
+					bucketName -> listAllObjects(bucketName, null));
+		}
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		if (indexManager != null) {
+			indexManager.close();
+		}
+		if (s3Client != null) {
+			s3Client.close();
+		}
+		if (s3Presigner != null) {
+			s3Presigner.close();
+		}
+	}
+
 }
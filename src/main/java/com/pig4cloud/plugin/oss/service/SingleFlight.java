@@ -0,0 +1,127 @@
+/*
+ *    Copyright (c) 2018-2025, lengleng All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * Neither the name of the pig4cloud.com developer nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ * Author: lengleng (wangiegie@gmail.com)
+ */
+
+package com.pig4cloud.plugin.oss.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 相同请求合并执行（single-flight）
+ * <p>
+ * 同一时刻相同 key 的并发调用只会有一个线程（leader）真正执行，其余线程等待并共享其结果或异常。 调用结束后立即移除，不做任何缓存。
+ *
+ * @param <K> 请求标识
+ * @param <V> 结果类型
+ * @author lengleng
+ * @date 2026/10/18
+ */
+public class SingleFlight<K, V> {
+
+	private final ConcurrentMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+
+	/**
+	 * 实际执行的次数
+	 */
+	private final LongAdder executed = new LongAdder();
+
+	/**
+	 * 加入进行中调用的次数，不区分结果最终是否可被等待者直接使用
+	 */
+	private final LongAdder shared = new LongAdder();
+
+	/**
+	 * 执行或加入一个进行中的相同调用
+	 * @param key 请求标识
+	 * @param loader 实际调用，仅在 leader 线程执行
+	 * @return 结果
+	 */
+	public V execute(K key, Supplier<V> loader) {
+		CompletableFuture<V> call = new CompletableFuture<>();
+		CompletableFuture<V> inFlight = calls.putIfAbsent(key, call);
+		if (inFlight != null) {
+			shared.increment();
+			return join(inFlight);
+		}
+
+		executed.increment();
+		try {
+			V value = loader.get();
+			call.complete(value);
+			return value;
+		}
+		catch (Throwable e) {
+			call.completeExceptionally(e);
+			throw e;
+		}
+		finally {
+			calls.remove(key, call);
+		}
+	}
+
+	/**
+	 * 使进行中的调用不再被后续调用加入，已加入的调用仍获得其结果
+	 * <p>
+	 * 用于数据变更后：之后的调用会重新执行，而不是共享变更前发起的调用结果。
+	 * @param key 请求标识
+	 */
+	public void forget(K key) {
+		calls.remove(key);
+	}
+
+	/**
+	 * @return 实际执行的次数
+	 */
+	public long getExecutedCount() {
+		return executed.sum();
+	}
+
+	/**
+	 * @return 加入进行中调用的次数
+	 */
+	public long getSharedCount() {
+		return shared.sum();
+	}
+
+	/**
+	 * @return 当前进行中的调用数量
+	 */
+	public int getInFlightCount() {
+		return calls.size();
+	}
+
+	private static <V> V join(CompletableFuture<V> future) {
+		try {
+			return future.join();
+		}
+		catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			if (cause instanceof Error error) {
+				throw error;
+			}
+			throw e;
+		}
+	}
+
+}
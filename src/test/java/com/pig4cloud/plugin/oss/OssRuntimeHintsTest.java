@@ -0,0 +1,55 @@
+package com.pig4cloud.plugin.oss;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.util.ClassUtils;
+
+/**
+ * native image 运行时提示测试
+ *
+ * @author lengleng
+ * @date 2026/10/18
+ */
+public class OssRuntimeHintsTest {
+
+	@Test
+	public void registersResources() {
+		RuntimeHints hints = new RuntimeHints();
+		new OssRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+		for (String resource : OssRuntimeHints.RESOURCES) {
+			Assertions.assertTrue(RuntimeHintsPredicates.resource().forResource(resource).test(hints), resource);
+		}
+	}
+
+	@Test
+	public void registersHttpServicesOnClasspath() {
+		ClassLoader classLoader = getClass().getClassLoader();
+		RuntimeHints hints = new RuntimeHints();
+		new OssRuntimeHints().registerHints(hints, classLoader);
+
+		for (String type : OssRuntimeHints.SERVICE_TYPES) {
+			boolean registered = RuntimeHintsPredicates.reflection().onType(TypeReference.of(type))
+					.withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS).test(hints);
+			Assertions.assertEquals(ClassUtils.isPresent(type, classLoader), registered, type);
+		}
+		Assertions.assertTrue(ClassUtils.isPresent(OssRuntimeHints.SERVICE_TYPES[0], classLoader));
+	}
+
+	@Test
+	public void skipsHttpServicesMissingFromClasspath() {
+		RuntimeHints hints = new RuntimeHints();
+		new OssRuntimeHints().registerHints(hints, new ClassLoader(null) {
+		});
+
+		for (String type : OssRuntimeHints.SERVICE_TYPES) {
+			Assertions.assertFalse(RuntimeHintsPredicates.reflection().onType(TypeReference.of(type)).test(hints),
+					type);
+		}
+	}
+
+}
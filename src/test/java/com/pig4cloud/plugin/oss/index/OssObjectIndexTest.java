@@ -0,0 +1,141 @@
+package com.pig4cloud.plugin.oss.index;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 本地对象索引测试
+ *
+ * @author lengleng
+ * @date 2026/10/18
+ */
+public class OssObjectIndexTest {
+
+	@Test
+	public void directoryAggregatesFollowPutAndRemove() {
+		OssObjectIndex index = new OssObjectIndex("test-oss");
+		index.put("a/b/1.txt", 10, "e1");
+		index.put("a/b/2.txt", 20, "e2");
+		index.put("a/c.txt", 5, "e3");
+		index.put("root.txt", 1, "e4");
+
+		assertStat(index, null, 4, 36);
+		assertStat(index, "a/", 3, 35);
+		assertStat(index, "a/b/", 2, 30);
+
+		// 覆盖只更新大小，不重复计数
+		index.put("a/b/1.txt", 15, "e5");
+		assertStat(index, "a/b/", 2, 35);
+		assertStat(index, "", 4, 41);
+
+		index.remove("a/b/1.txt");
+		index.remove("a/b/2.txt");
+		index.remove("missing.txt");
+		assertStat(index, "a/b/", 0, 0);
+		assertStat(index, "a/", 1, 5);
+		assertStat(index, "", 2, 6);
+	}
+
+	@Test
+	public void nonDirectoryPrefixWalksRange() {
+		OssObjectIndex index = new OssObjectIndex("test-oss");
+		index.put("logs/2026-10-17.log", 7, "e1");
+		index.put("logs/2026-10-18.log", 8, "e2");
+		index.put("logs/2025-01-01.log", 100, "e3");
+
+		assertStat(index, "logs/2026", 2, 15);
+		Assertions.assertEquals(List.of("logs/2026-10-17.log", "logs/2026-10-18.log"),
+				index.list("logs/2026").stream().map(S3Object::key).toList());
+	}
+
+	@Test
+	public void rebuildKeepsWritesMadeDuringSync() {
+		OssObjectIndex index = new OssObjectIndex("test-oss");
+		index.put("stale.txt", 1, "e0");
+		Assertions.assertFalse(index.isReady());
+
+		Iterable<S3Object> listing = () -> new Iterator<>() {
+
+			private final Iterator<S3Object> delegate = List.of(object("a/1.txt", 10), object("a/2.txt", 20),
+					object("a/3.txt", 30)).iterator();
+
+			@Override
+			public boolean hasNext() {
+				return delegate.hasNext();
+			}
+
+			@Override
+			public S3Object next() {
+				S3Object next = delegate.next();
+				if ("a/1.txt".equals(next.key())) {
+					// 同步期间发生的写入与删除
+					index.put("a/2.txt", 25, "new");
+					index.remove("a/3.txt");
+				}
+				return next;
+			}
+
+		};
+		index.rebuild(listing);
+
+		Assertions.assertTrue(index.isReady());
+		assertStat(index, "", 2, 35);
+		assertStat(index, "a/", 2, 35);
+	}
+
+	@Test
+	public void resyncUpdatesInPlace() {
+		OssObjectIndex index = new OssObjectIndex("test-oss");
+		index.rebuild(List.of(object("a/1.txt", 10), object("a/2.txt", 20), object("b/1.txt", 30)));
+		assertStat(index, "", 3, 60);
+
+		// 第二次同步：a/2 变大，b/1 已删除，新增 c/1
+		index.rebuild(List.of(object("a/1.txt", 10), object("a/2.txt", 25), object("c/1.txt", 5)));
+
+		Assertions.assertEquals(List.of("a/1.txt", "a/2.txt", "c/1.txt"),
+				index.list(null).stream().map(S3Object::key).toList());
+		assertStat(index, "", 3, 40);
+		assertStat(index, "a/", 2, 35);
+		assertStat(index, "b/", 0, 0);
+		assertStat(index, "c/", 1, 5);
+	}
+
+	@Test
+	public void failedResyncKeepsExistingEntries() {
+		OssObjectIndex index = new OssObjectIndex("test-oss");
+		index.rebuild(List.of(object("a/1.txt", 10), object("a/2.txt", 20)));
+
+		Iterable<S3Object> failing = () -> new Iterator<>() {
+
+			@Override
+			public boolean hasNext() {
+				return true;
+			}
+
+			@Override
+			public S3Object next() {
+				throw new IllegalStateException("list failed");
+			}
+
+		};
+		Assertions.assertThrows(IllegalStateException.class, () -> index.rebuild(failing));
+
+		assertStat(index, "a/", 2, 30);
+		index.put("a/3.txt", 1, "e");
+		assertStat(index, "a/", 3, 31);
+	}
+
+	private static S3Object object(String key, long size) {
+		return S3Object.builder().key(key).size(size).eTag(key).build();
+	}
+
+	private static void assertStat(OssObjectIndex index, String prefix, long count, long size) {
+		Assertions.assertEquals(count, index.count(prefix), "count of " + prefix);
+		Assertions.assertEquals(size, index.size(prefix), "size of " + prefix);
+	}
+
+}
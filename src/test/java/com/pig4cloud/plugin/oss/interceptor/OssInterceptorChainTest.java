@@ -0,0 +1,147 @@
+package com.pig4cloud.plugin.oss.interceptor;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 拦截器链测试
+ *
+ * @author lengleng
+ * @date 2026/10/18
+ */
+public class OssInterceptorChainTest {
+
+	private static final String BUCKET = "test-oss";
+
+	private static final String OBJECT = "test.txt";
+
+	@Test
+	public void callbacksRunInOrder() {
+		List<String> events = new ArrayList<>();
+		OssInterceptorChain chain = new OssInterceptorChain(
+				List.of(new RecordingInterceptor("a", events), new RecordingInterceptor("b", events)));
+
+		String result = chain.execute(OssOperationType.PUT_OBJECT, BUCKET, OBJECT, bytes -> {
+			bytes.accept(42);
+			events.add("call");
+			return "ok";
+		});
+
+		Assertions.assertEquals("ok", result);
+		Assertions.assertEquals(List.of("a:before", "b:before", "call", "b:afterCall", "a:afterCall", "b:after:42",
+				"a:after:42"), events);
+	}
+
+	@Test
+	public void failingInterceptorDoesNotAffectOthersOrResult() {
+		List<String> events = new ArrayList<>();
+		OssInterceptor failing = new OssInterceptor() {
+
+			@Override
+			public void beforeOperation(OssOperation operation) {
+				throw new IllegalStateException("before");
+			}
+
+			@Override
+			public void afterOperation(OssOperation operation) {
+				throw new IllegalStateException("after");
+			}
+
+		};
+		OssInterceptorChain chain = new OssInterceptorChain(
+				List.of(failing, new RecordingInterceptor("a", events)));
+
+		Assertions.assertEquals("ok", chain.execute(OssOperationType.HEAD_OBJECT, BUCKET, OBJECT, bytes -> "ok"));
+		Assertions.assertEquals(List.of("a:before", "a:afterCall", "a:after:-1"), events);
+	}
+
+	@Test
+	public void callErrorIsReportedAndRethrown() {
+		List<String> events = new ArrayList<>();
+		OssInterceptorChain chain = new OssInterceptorChain(List.of(new RecordingInterceptor("a", events)));
+
+		Assertions.assertThrows(IllegalStateException.class,
+				() -> chain.execute(OssOperationType.HEAD_OBJECT, BUCKET, OBJECT, bytes -> {
+					throw new IllegalStateException("boom");
+				}));
+		Assertions.assertEquals(List.of("a:before", "a:afterCall", "a:error:boom"), events);
+	}
+
+	@Test
+	public void streamOperationEndsOnClose() throws IOException {
+		List<String> events = new ArrayList<>();
+		OssInterceptorChain chain = new OssInterceptorChain(List.of(new RecordingInterceptor("a", events)));
+
+		InputStream stream = chain.executeStream(OssOperationType.GET_OBJECT, BUCKET, OBJECT,
+				() -> new ByteArrayInputStream(new byte[100]));
+		Assertions.assertEquals(List.of("a:before", "a:afterCall"), events);
+
+		stream.readNBytes(30);
+		stream.close();
+		stream.close();
+		Assertions.assertEquals(List.of("a:before", "a:afterCall", "a:after:30"), events);
+	}
+
+	@Test
+	public void streamReadErrorIsReportedOnClose() throws IOException {
+		List<String> events = new ArrayList<>();
+		OssInterceptorChain chain = new OssInterceptorChain(List.of(new RecordingInterceptor("a", events)));
+		InputStream failing = new InputStream() {
+
+			@Override
+			public int read() throws IOException {
+				throw new IOException("reset");
+			}
+
+		};
+
+		InputStream stream = chain.executeStream(OssOperationType.GET_OBJECT, BUCKET, OBJECT, () -> failing);
+		Assertions.assertThrows(IOException.class, stream::read);
+		stream.close();
+
+		Assertions.assertEquals(List.of("a:before", "a:afterCall", "a:error:reset"), events);
+	}
+
+	@Test
+	public void emptyChainCallsThrough() {
+		OssInterceptorChain chain = new OssInterceptorChain(List.of());
+		InputStream stream = new ByteArrayInputStream(new byte[0]);
+
+		Assertions.assertTrue(chain.isEmpty());
+		Assertions.assertSame(stream, chain.executeStream(OssOperationType.GET_OBJECT, BUCKET, OBJECT, () -> stream));
+	}
+
+	/**
+	 * 记录回调顺序
+	 */
+	private record RecordingInterceptor(String name, List<String> events) implements OssInterceptor {
+
+		@Override
+		public void beforeOperation(OssOperation operation) {
+			events.add(name + ":before");
+		}
+
+		@Override
+		public void afterCall(OssOperation operation) {
+			events.add(name + ":afterCall");
+		}
+
+		@Override
+		public void afterOperation(OssOperation operation) {
+			events.add(name + ":after:" + operation.getBytes());
+		}
+
+		@Override
+		public void onError(OssOperation operation, Throwable error) {
+			events.add(name + ":error:" + error.getMessage());
+		}
+
+	}
+
+}
@@ -0,0 +1,145 @@
+package com.pig4cloud.plugin.oss.limit;
+
+import com.pig4cloud.plugin.oss.OssProperties;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * 客户端限流测试
+ *
+ * @author lengleng
+ * @date 2026/10/18
+ */
+public class OssRateLimiterTest {
+
+	private static final String BUCKET = "test-oss";
+
+	private OssProperties.RateLimit config;
+
+	@BeforeEach
+	public void init() {
+		config = new OssProperties.RateLimit();
+		config.setEnable(true);
+		config.setRequestsPerSecond(100);
+		config.setAdaptive(true);
+	}
+
+	@Test
+	public void slowDownHalvesRate() {
+		config.setRampUpInterval(Duration.ZERO);
+		OssRateLimiter limiter = new OssRateLimiter(config);
+
+		limiter.onResponse(BUCKET, null, 503);
+
+		Assertions.assertEquals(Optional.of(50.0), limiter.getRequestRate(BUCKET, null));
+	}
+
+	@Test
+	public void slowDownAppliesOncePerInterval() {
+		config.setRampUpInterval(Duration.ofHours(1));
+		OssRateLimiter limiter = new OssRateLimiter(config);
+
+		limiter.onResponse(BUCKET, null, 503);
+		limiter.onResponse(BUCKET, null, 503);
+		limiter.onResponse(BUCKET, null, 200);
+
+		Assertions.assertEquals(Optional.of(50.0), limiter.getRequestRate(BUCKET, null));
+	}
+
+	@Test
+	public void backoffStopsAtFloor() {
+		config.setRampUpInterval(Duration.ZERO);
+		OssRateLimiter limiter = new OssRateLimiter(config);
+
+		for (int i = 0; i < 10; i++) {
+			limiter.onResponse(BUCKET, null, 503);
+		}
+
+		Assertions.assertEquals(Optional.of(5.0), limiter.getRequestRate(BUCKET, null));
+	}
+
+	@Test
+	public void rampUpRecoversToCeiling() {
+		config.setRampUpInterval(Duration.ZERO);
+		OssRateLimiter limiter = new OssRateLimiter(config);
+
+		limiter.onResponse(BUCKET, null, 503);
+		limiter.onResponse(BUCKET, null, 200);
+		Assertions.assertEquals(60.0, limiter.getRequestRate(BUCKET, null).orElseThrow(), 1e-9);
+
+		for (int i = 0; i < 10; i++) {
+			limiter.onResponse(BUCKET, null, 200);
+		}
+		Assertions.assertEquals(Optional.of(100.0), limiter.getRequestRate(BUCKET, null));
+	}
+
+	@Test
+	public void nonAdaptiveIgnoresSlowDown() {
+		config.setAdaptive(false);
+		config.setRampUpInterval(Duration.ZERO);
+		OssRateLimiter limiter = new OssRateLimiter(config);
+
+		limiter.acquire(BUCKET, null);
+		limiter.onResponse(BUCKET, null, 503);
+
+		Assertions.assertEquals(Optional.of(100.0), limiter.getRequestRate(BUCKET, null));
+	}
+
+	@Test
+	public void adaptiveRequiresRequestCeiling() {
+		config.setRequestsPerSecond(0);
+
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new OssRateLimiter(config));
+	}
+
+	@Test
+	public void unlimitedTracksNothing() {
+		config.setRequestsPerSecond(0);
+		config.setAdaptive(false);
+		OssRateLimiter limiter = new OssRateLimiter(config);
+
+		limiter.acquire(BUCKET, "a/b");
+		limiter.onResponse(BUCKET, "a/b", 503);
+
+		Assertions.assertEquals(0, limiter.getTrackedCount());
+		Assertions.assertTrue(limiter.getRequestRate(BUCKET, "a/b").isEmpty());
+	}
+
+	@Test
+	public void prefixDepthSplitsBuckets() {
+		config.setPrefixDepth(1);
+		config.setRampUpInterval(Duration.ZERO);
+		OssRateLimiter limiter = new OssRateLimiter(config);
+
+		limiter.acquire(BUCKET, "a/x/1");
+		limiter.acquire(BUCKET, "a/y");
+		limiter.acquire(BUCKET, "c/1");
+		limiter.acquire(BUCKET, "root");
+		limiter.onResponse(BUCKET, "a/z", 503);
+
+		Assertions.assertEquals(3, limiter.getTrackedCount());
+		Assertions.assertEquals(Optional.of(50.0), limiter.getRequestRate(BUCKET, "a/other"));
+		Assertions.assertEquals(Optional.of(100.0), limiter.getRequestRate(BUCKET, "c/other"));
+		Assertions.assertEquals(Optional.of(100.0), limiter.getRequestRate(BUCKET, null));
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsedPrefixes() {
+		config.setPrefixDepth(1);
+		config.setMaxPrefixes(10);
+		OssRateLimiter limiter = new OssRateLimiter(config);
+
+		for (int i = 0; i < 100; i++) {
+			limiter.acquire(BUCKET, "p" + i + "/object");
+		}
+
+		Assertions.assertTrue(limiter.getTrackedCount() <= 10);
+		Assertions.assertTrue(limiter.getRequestRate(BUCKET, "p99/object").isPresent());
+		Assertions.assertTrue(limiter.getRequestRate(BUCKET, "p0/object").isEmpty());
+	}
+
+}
@@ -0,0 +1,54 @@
+package com.pig4cloud.plugin.oss.limit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌桶测试
+ *
+ * @author lengleng
+ * @date 2026/10/18
+ */
+public class TokenBucketTest {
+
+	@Test
+	public void burstWithinCapacityDoesNotWait() {
+		TokenBucket bucket = new TokenBucket(100);
+
+		Assertions.assertTrue(elapsedMillis(() -> bucket.acquire(100)) < 50);
+	}
+
+	@Test
+	public void debtDelaysCaller() {
+		TokenBucket bucket = new TokenBucket(1000);
+		bucket.acquire(1000);
+
+		// 透支 200 个令牌，按每秒 1000 个需要等待约 200ms
+		Assertions.assertTrue(elapsedMillis(() -> bucket.acquire(200)) >= 150);
+	}
+
+	@Test
+	public void setRateCapsStoredPermits() {
+		TokenBucket bucket = new TokenBucket(1000);
+		bucket.setRate(10);
+
+		Assertions.assertEquals(10, bucket.getRate());
+		// 桶内最多保留 10 个令牌，透支 5 个需要等待约 500ms
+		Assertions.assertTrue(elapsedMillis(() -> bucket.acquire(15)) >= 400);
+	}
+
+	@Test
+	public void rejectsNonPositiveRate() {
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1).setRate(-1));
+	}
+
+	private static long elapsedMillis(Runnable runnable) {
+		long start = System.nanoTime();
+		runnable.run();
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+	}
+
+}
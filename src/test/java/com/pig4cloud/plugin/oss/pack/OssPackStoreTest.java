@@ -0,0 +1,394 @@
+package com.pig4cloud.plugin.oss.pack;
+
+import com.pig4cloud.plugin.oss.OssProperties;
+import com.pig4cloud.plugin.oss.service.OssTemplate;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 小文件打包存储测试
+ *
+ * @author lengleng
+ * @date 2026/10/18
+ */
+public class OssPackStoreTest {
+
+	private static final String BUCKET = "test-oss";
+
+	private static final String PREFIX = "packs/";
+
+	private static final String LOCK = PREFIX + "compaction.lock";
+
+	private InMemoryOssTemplate template;
+
+	private final List<OssPackStore> stores = new ArrayList<>();
+
+	@BeforeEach
+	public void init() {
+		template = new InMemoryOssTemplate();
+	}
+
+	@AfterEach
+	@SneakyThrows
+	public void destroy() {
+		for (OssPackStore store : stores) {
+			store.destroy();
+		}
+	}
+
+	@Test
+	public void flushedPacksAreLoadedOnStartup() {
+		OssPackStore writer = open();
+		writer.putObject("a.txt", bytes("a"));
+		writer.putObject("b.txt", bytes("bb"));
+		writer.putObject("empty.txt", new byte[0]);
+		writer.flush();
+
+		OssPackStore reader = open();
+		Assertions.assertEquals(1, reader.getPackCount());
+		Assertions.assertEquals(3, reader.getObjectCount());
+		Assertions.assertEquals("a", read(reader, "a.txt"));
+		Assertions.assertEquals("bb", read(reader, "b.txt"));
+		Assertions.assertEquals("", read(reader, "empty.txt"));
+	}
+
+	@Test
+	public void overwriteAndDeleteAcrossPacks() {
+		OssPackStore writer = open();
+		writer.putObject("a.txt", bytes("v1"));
+		writer.putObject("b.txt", bytes("b"));
+		writer.flush();
+		writer.putObject("a.txt", bytes("v2"));
+		writer.removeObject("b.txt");
+		writer.flush();
+
+		Assertions.assertEquals("v2", read(writer, "a.txt"));
+		Assertions.assertThrows(NoSuchKeyException.class, () -> writer.getObject("b.txt"));
+
+		OssPackStore reader = open();
+		Assertions.assertEquals(2, reader.getPackCount());
+		Assertions.assertEquals(1, reader.getObjectCount());
+		Assertions.assertEquals("v2", read(reader, "a.txt"));
+		Assertions.assertThrows(NoSuchKeyException.class, () -> reader.getObject("b.txt"));
+	}
+
+	@Test
+	public void compactionKeepsTombstonesForRemainingPacks() {
+		OssPackStore writer = open();
+		// P1：a 与较大的 x，删除 a 后仍低于压缩阈值
+		writer.putObject("a.txt", bytes("a"));
+		writer.putObject("x.txt", new byte[1000]);
+		writer.flush();
+		// P2：z 与 a 的删除标记
+		writer.putObject("z.txt", bytes("z"));
+		writer.removeObject("a.txt");
+		writer.flush();
+		// P3：z 的删除标记，P2 全部失效
+		writer.removeObject("z.txt");
+		writer.flush();
+		List<String> before = template.packs();
+
+		writer.compact();
+
+		List<String> after = template.packs();
+		Assertions.assertFalse(after.contains(before.get(1)), "P2 should be compacted");
+		Assertions.assertTrue(after.contains(before.get(0)), "P1 is below the threshold");
+		// 重新加载后 P1 中的 a 仍被保留下来的删除标记覆盖
+		OssPackStore reader = open();
+		Assertions.assertThrows(NoSuchKeyException.class, () -> reader.getObject("a.txt"));
+		Assertions.assertThrows(NoSuchKeyException.class, () -> reader.getObject("z.txt"));
+		Assertions.assertArrayEquals(new byte[1000], readBytes(reader, "x.txt"));
+
+		// P2 删除后，只含指向 P2 的删除标记的 P3 也可以清理
+		writer.compact();
+		Assertions.assertFalse(template.packs().contains(before.get(2)), "P3 should be cleaned up");
+		OssPackStore reloaded = open();
+		Assertions.assertThrows(NoSuchKeyException.class, () -> reloaded.getObject("a.txt"));
+		Assertions.assertEquals(1, reloaded.getObjectCount());
+	}
+
+	@Test
+	public void failedFlushRequeuesBatch() {
+		OssPackStore writer = open();
+		writer.putObject("a.txt", bytes("a"));
+		template.failPacks = true;
+
+		Assertions.assertThrows(S3Exception.class, writer::flush);
+		Assertions.assertTrue(template.packs().isEmpty());
+		Assertions.assertEquals("a", read(writer, "a.txt"));
+
+		template.failPacks = false;
+		writer.putObject("b.txt", bytes("b"));
+		writer.flush();
+
+		Assertions.assertEquals(1, template.packs().size());
+		OssPackStore reader = open();
+		Assertions.assertEquals("a", read(reader, "a.txt"));
+		Assertions.assertEquals("b", read(reader, "b.txt"));
+	}
+
+	@Test
+	@SneakyThrows
+	public void everyInstanceWritesToItsOwnNamespace() {
+		OssPackStore first = open();
+		OssPackStore second = open();
+		Assertions.assertTrue(first.isCompactor());
+		Assertions.assertFalse(second.isCompactor());
+
+		first.putObject("a.txt", bytes("a"));
+		first.putObject("y.txt", bytes("y"));
+		first.putObject("x.txt", new byte[1000]);
+		first.flush();
+		second.refresh();
+		second.putObject("b.txt", bytes("b"));
+		second.removeObject("a.txt");
+		second.flush();
+		Assertions.assertEquals(2,
+				template.packs().stream().map(name -> name.substring(0, name.lastIndexOf('/'))).distinct().count());
+
+		first.refresh();
+		Assertions.assertEquals("b", read(first, "b.txt"));
+		Assertions.assertThrows(NoSuchKeyException.class, () -> first.getObject("a.txt"));
+
+		// 未持有租约的实例不压缩
+		first.removeObject("x.txt");
+		first.flush();
+		second.compact();
+		Assertions.assertEquals(3, template.packs().size());
+
+		// 压缩掉 second 仍在引用的 pack，读取时自动加载新的位置
+		first.compact();
+		Assertions.assertEquals("y", read(second, "y.txt"));
+
+		// 持有租约的实例释放租约后，新实例可以接管
+		first.destroy();
+		stores.remove(first);
+		OssPackStore successor = open();
+		Assertions.assertTrue(successor.isCompactor());
+		Assertions.assertThrows(NoSuchKeyException.class, () -> successor.getObject("a.txt"));
+		Assertions.assertThrows(NoSuchKeyException.class, () -> successor.getObject("x.txt"));
+		Assertions.assertEquals("y", read(successor, "y.txt"));
+		Assertions.assertEquals("b", read(successor, "b.txt"));
+	}
+
+	@Test
+	@SneakyThrows
+	public void compactionDoesNotResurrectConcurrentDelete() {
+		OssPackStore compactor = open();
+		OssPackStore other = open();
+		compactor.putObject("a.txt", bytes("a"));
+		compactor.putObject("b.txt", bytes("b"));
+		compactor.putObject("x.txt", new byte[1000]);
+		compactor.flush();
+		compactor.removeObject("x.txt");
+		compactor.flush();
+
+		// other 删除 a 的标记尚未落盘时，压缩把 a 复制到了新的 pack
+		other.refresh();
+		other.removeObject("a.txt");
+		compactor.compact();
+		other.refresh();
+		Assertions.assertThrows(NoSuchKeyException.class, () -> other.getObject("a.txt"));
+		other.flush();
+
+		compactor.refresh();
+		Assertions.assertThrows(NoSuchKeyException.class, () -> compactor.getObject("a.txt"));
+		OssPackStore reloaded = open();
+		Assertions.assertThrows(NoSuchKeyException.class, () -> reloaded.getObject("a.txt"));
+		Assertions.assertEquals("b", read(reloaded, "b.txt"));
+	}
+
+	@Test
+	@SneakyThrows
+	public void concurrentLeaseTakeoverHasSingleWinner() {
+		OssPackStore first = open();
+		first.destroy();
+		stores.remove(first);
+
+		// 另一实例在读取租约与写入之间抢先接管
+		template.beforeLeaseWrite = () -> {
+			template.beforeLeaseWrite = null;
+			byte[] rival = bytes("rival\n" + (System.currentTimeMillis() + 60_000));
+			template.putObject(BUCKET, LOCK, new ByteArrayInputStream(rival), rival.length, "text/plain");
+		};
+		OssPackStore second = open();
+
+		Assertions.assertFalse(second.isCompactor());
+		Assertions.assertTrue(new String(template.objects.get(LOCK), StandardCharsets.UTF_8).startsWith("rival"));
+	}
+
+	@Test
+	@SneakyThrows
+	public void expiredLeaseStopsCompaction() {
+		OssPackStore store = open(Duration.ofMillis(50));
+		store.putObject("x.txt", new byte[1000]);
+		store.flush();
+		store.removeObject("x.txt");
+		store.flush();
+		Assertions.assertTrue(store.isCompactor());
+
+		// 未能续期，租约过期后由其他实例接管
+		Thread.sleep(100);
+		Assertions.assertFalse(store.isCompactor());
+		OssPackStore successor = open();
+		Assertions.assertTrue(successor.isCompactor());
+
+		store.compact();
+		Assertions.assertEquals(2, template.packs().size());
+	}
+
+	private OssPackStore open() {
+		return open(Duration.ofSeconds(30));
+	}
+
+	@SneakyThrows
+	private OssPackStore open(Duration lockLease) {
+		OssProperties properties = new OssProperties();
+		properties.setBucketName(BUCKET);
+		OssProperties.Pack pack = properties.getPack();
+		pack.setEnable(true);
+		pack.setPrefix(PREFIX);
+		pack.setFlushInterval(Duration.ofHours(1));
+		pack.setCompactionInterval(Duration.ofHours(1));
+		pack.setRefreshInterval(Duration.ofHours(1));
+		pack.setLockLease(lockLease);
+		OssPackStore store = new OssPackStore(template, properties);
+		store.afterPropertiesSet();
+		stores.add(store);
+		return store;
+	}
+
+	private static byte[] bytes(String content) {
+		return content.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static String read(OssPackStore store, String objectName) {
+		return new String(readBytes(store, objectName), StandardCharsets.UTF_8);
+	}
+
+	@SneakyThrows
+	private static byte[] readBytes(OssPackStore store, String objectName) {
+		try (InputStream in = store.getObject(objectName)) {
+			return in.readAllBytes();
+		}
+	}
+
+	/**
+	 * 内存中的存储桶
+	 */
+	private static class InMemoryOssTemplate extends OssTemplate {
+
+		private final Map<String, byte[]> objects = new ConcurrentSkipListMap<>();
+
+		private final Map<String, String> eTags = new ConcurrentHashMap<>();
+
+		private final AtomicLong versions = new AtomicLong();
+
+		/**
+		 * 为 true 时 pack 上传失败
+		 */
+		private volatile boolean failPacks;
+
+		/**
+		 * 写入租约前执行，模拟并发抢占
+		 */
+		private volatile Runnable beforeLeaseWrite;
+
+		InMemoryOssTemplate() {
+			super(new OssProperties());
+		}
+
+		List<String> packs() {
+			return objects.keySet().stream().filter(key -> key.endsWith(".pack")).toList();
+		}
+
+		@Override
+		public synchronized PutObjectResponse putObject(String bucketName, String objectName, InputStream stream,
+				long size, String contextType, String ifMatch, String ifNoneMatch) {
+			Runnable hook = beforeLeaseWrite;
+			if (hook != null && objectName.equals(LOCK)) {
+				hook.run();
+			}
+			if (failPacks && objectName.endsWith(".pack")) {
+				throw (S3Exception) S3Exception.builder().statusCode(500).message("Internal Error").build();
+			}
+			String eTag = eTags.get(objectName);
+			if ((ifMatch != null && !ifMatch.equals(eTag)) || ("*".equals(ifNoneMatch) && eTag != null)) {
+				throw (S3Exception) S3Exception.builder().statusCode(412).message("Precondition Failed").build();
+			}
+			try {
+				objects.put(objectName, stream.readAllBytes());
+			}
+			catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+			eTag = String.valueOf(versions.incrementAndGet());
+			eTags.put(objectName, eTag);
+			return PutObjectResponse.builder().eTag(eTag).build();
+		}
+
+		@Override
+		public HeadObjectResponse getObjectInfo(String bucketName, String objectName) {
+			return HeadObjectResponse.builder().contentLength((long) content(objectName).length)
+					.eTag(eTags.get(objectName)).build();
+		}
+
+		@Override
+		public InputStream getObject(String bucketName, String objectName) {
+			return new ByteArrayInputStream(content(objectName));
+		}
+
+		@Override
+		public InputStream getObject(String bucketName, String objectName, long offset, long length, String eTag) {
+			byte[] content = content(objectName);
+			if (eTag != null && !eTag.equals(eTags.get(objectName))) {
+				throw (S3Exception) S3Exception.builder().statusCode(412).message("Precondition Failed").build();
+			}
+			return new ByteArrayInputStream(
+					Arrays.copyOfRange(content, (int) offset, (int) Math.min(content.length, offset + length)));
+		}
+
+		@Override
+		public void removeObject(String bucketName, String objectName) {
+			objects.remove(objectName);
+			eTags.remove(objectName);
+		}
+
+		@Override
+		public Iterable<S3Object> listAllObjects(String bucketName, String prefix) {
+			return objects.entrySet().stream().filter(e -> e.getKey().startsWith(prefix))
+					.map(e -> S3Object.builder().key(e.getKey()).size((long) e.getValue().length).build()).toList();
+		}
+
+		private byte[] content(String objectName) {
+			byte[] content = objects.get(objectName);
+			if (content == null) {
+				throw NoSuchKeyException.builder().message("The specified key does not exist.").build();
+			}
+			return content;
+		}
+
+	}
+
+}
@@ -0,0 +1,212 @@
+package com.pig4cloud.plugin.oss.service;
+
+import com.pig4cloud.plugin.oss.OssProperties;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 远程对象随机访问通道测试
+ *
+ * @author lengleng
+ * @date 2026/10/18
+ */
+public class OssObjectChannelTest {
+
+	private static final String BUCKET = "test-oss";
+
+	private static final String OBJECT = "test.bin";
+
+	private static final String ETAG = "\"v1\"";
+
+	private static final int BLOCK_SIZE = 16;
+
+	@Test
+	public void sequentialReadDoublesReadAhead() throws IOException {
+		StubTemplate template = new StubTemplate(content(160));
+		OssObjectChannel channel = open(template, 160, 4);
+
+		ByteBuffer dst = ByteBuffer.allocate(160);
+		while (dst.hasRemaining()) {
+			channel.read(dst);
+		}
+
+		Assertions.assertArrayEquals(content(160), dst.array());
+		// 1 + 2 + 4 + 3（最多 4 块，剩余 3 块）
+		Assertions.assertEquals(List.of(16L, 32L, 64L, 48L), template.lengths);
+		Assertions.assertEquals(160, channel.getFetchedBytes());
+	}
+
+	@Test
+	public void readAcrossBlockBoundary() throws IOException {
+		StubTemplate template = new StubTemplate(content(64));
+		OssObjectChannel channel = open(template, 64, 1);
+
+		channel.position(BLOCK_SIZE - 3);
+		ByteBuffer dst = ByteBuffer.allocate(6);
+		Assertions.assertEquals(6, channel.read(dst));
+
+		Assertions.assertArrayEquals(Arrays.copyOfRange(content(64), BLOCK_SIZE - 3, BLOCK_SIZE + 3), dst.array());
+		Assertions.assertEquals(List.of(0L, 16L), template.offsets);
+	}
+
+	@Test
+	public void randomSeekFetchesSingleBlock() throws IOException {
+		StubTemplate template = new StubTemplate(content(160));
+		OssObjectChannel channel = open(template, 160, 8);
+
+		channel.read(ByteBuffer.allocate(1));
+		channel.position(100);
+		channel.read(ByteBuffer.allocate(1));
+
+		Assertions.assertEquals(List.of(0L, 96L), template.offsets);
+		Assertions.assertEquals(List.of(16L, 16L), template.lengths);
+	}
+
+	@Test
+	public void cachedBlocksAreNotFetchedAgain() throws IOException {
+		StubTemplate template = new StubTemplate(content(64));
+		OssObjectChannel channel = open(template, 64, 1);
+
+		channel.read(ByteBuffer.allocate(4));
+		channel.position(0);
+		channel.read(ByteBuffer.allocate(4));
+
+		Assertions.assertEquals(1, channel.getFetchCount());
+	}
+
+	@Test
+	public void readStopsAtEndOfObject() throws IOException {
+		StubTemplate template = new StubTemplate(content(40));
+		OssObjectChannel channel = open(template, 40, 4);
+
+		channel.position(30);
+		ByteBuffer dst = ByteBuffer.allocate(32);
+		Assertions.assertEquals(10, channel.read(dst));
+		Assertions.assertEquals(-1, channel.read(dst));
+
+		channel.position(1000);
+		Assertions.assertEquals(-1, channel.read(ByteBuffer.allocate(1)));
+		// 最后一块只请求对象内剩余的字节
+		Assertions.assertEquals(List.of(16L, 32L), template.offsets);
+		Assertions.assertEquals(List.of(16L, 8L), template.lengths);
+	}
+
+	@Test
+	public void emptyObjectReadsEndOfStream() throws IOException {
+		StubTemplate template = new StubTemplate(new byte[0]);
+		OssObjectChannel channel = open(template, 0, 4);
+
+		Assertions.assertEquals(-1, channel.read(ByteBuffer.allocate(1)));
+		Assertions.assertTrue(template.offsets.isEmpty());
+	}
+
+	@Test
+	public void sendsETagAndFailsWhenObjectChanged() throws IOException {
+		StubTemplate template = new StubTemplate(content(64));
+		OssObjectChannel channel = open(template, 64, 1);
+
+		channel.read(ByteBuffer.allocate(1));
+		Assertions.assertEquals(List.of(ETAG), template.eTags);
+
+		template.currentETag = "\"v2\"";
+		channel.position(BLOCK_SIZE * 2);
+		IOException e = Assertions.assertThrows(IOException.class, () -> channel.read(ByteBuffer.allocate(1)));
+		Assertions.assertInstanceOf(S3Exception.class, e.getCause());
+	}
+
+	@Test
+	public void shortReadFails() {
+		StubTemplate template = new StubTemplate(content(20));
+		OssObjectChannel channel = open(template, 64, 1);
+
+		channel.position(BLOCK_SIZE);
+		Assertions.assertThrows(IOException.class, () -> channel.read(ByteBuffer.allocate(8)));
+	}
+
+	@Test
+	public void closedChannelRejectsReads() {
+		OssObjectChannel channel = open(new StubTemplate(content(16)), 16, 1);
+		channel.close();
+
+		Assertions.assertFalse(channel.isOpen());
+		Assertions.assertThrows(ClosedChannelException.class, () -> channel.read(ByteBuffer.allocate(1)));
+	}
+
+	@Test
+	public void rejectsEmptyRange() {
+		OssTemplate template = new OssTemplate(new OssProperties());
+
+		Assertions.assertThrows(IllegalArgumentException.class, () -> template.getObject(BUCKET, OBJECT, 0, 0));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> template.getObject(BUCKET, OBJECT, -1, 1));
+	}
+
+	@Test
+	public void rejectsInvalidBlockSize() {
+		StubTemplate template = new StubTemplate(content(16));
+
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> new OssObjectChannel(template, BUCKET, OBJECT, 16, ETAG, 0, 32, 1));
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> new OssObjectChannel(template, BUCKET, OBJECT, 16, ETAG, 3L << 30, 32, 1));
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> new OssObjectChannel(template, BUCKET, OBJECT, 16, ETAG, 64L << 20, 32, 64));
+	}
+
+	private static OssObjectChannel open(OssTemplate template, long size, int maxReadAheadBlocks) {
+		return new OssObjectChannel(template, BUCKET, OBJECT, size, ETAG, BLOCK_SIZE, 32, maxReadAheadBlocks);
+	}
+
+	private static byte[] content(int size) {
+		byte[] content = new byte[size];
+		for (int i = 0; i < size; i++) {
+			content[i] = (byte) i;
+		}
+		return content;
+	}
+
+	/**
+	 * 记录 Range 请求并从内存返回数据
+	 */
+	private static class StubTemplate extends OssTemplate {
+
+		private final byte[] content;
+
+		private final List<Long> offsets = new ArrayList<>();
+
+		private final List<Long> lengths = new ArrayList<>();
+
+		private final List<String> eTags = new ArrayList<>();
+
+		private String currentETag = ETAG;
+
+		StubTemplate(byte[] content) {
+			super(new OssProperties());
+			this.content = content;
+		}
+
+		@Override
+		public InputStream getObject(String bucketName, String objectName, long offset, long length, String eTag) {
+			offsets.add(offset);
+			lengths.add(length);
+			eTags.add(eTag);
+			if (eTag != null && !eTag.equals(currentETag)) {
+				throw (S3Exception) S3Exception.builder().statusCode(412).message("Precondition Failed").build();
+			}
+			int from = (int) Math.min(offset, content.length);
+			int to = (int) Math.min(offset + length, content.length);
+			return new ByteArrayInputStream(content, from, to - from);
+		}
+
+	}
+
+}
@@ -0,0 +1,137 @@
+package com.pig4cloud.plugin.oss.service;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 请求合并测试
+ *
+ * @author lengleng
+ * @date 2026/10/18
+ */
+public class SingleFlightTest {
+
+	private static final int CALLERS = 8;
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+	@AfterEach
+	public void destroy() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	@SneakyThrows
+	public void concurrentCallsExecuteOnce() {
+		SingleFlight<String, String> flight = new SingleFlight<>();
+		AtomicInteger invocations = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+
+		List<Future<String>> results = new ArrayList<>();
+		for (int i = 0; i < CALLERS; i++) {
+			results.add(executor.submit(() -> flight.execute("key", () -> {
+				invocations.incrementAndGet();
+				await(release);
+				return "value";
+			})));
+		}
+		awaitShared(flight, CALLERS - 1);
+		release.countDown();
+
+		for (Future<String> result : results) {
+			Assertions.assertEquals("value", result.get(5, TimeUnit.SECONDS));
+		}
+		Assertions.assertEquals(1, invocations.get());
+		Assertions.assertEquals(1, flight.getExecutedCount());
+		Assertions.assertEquals(CALLERS - 1, flight.getSharedCount());
+		Assertions.assertEquals(0, flight.getInFlightCount());
+	}
+
+	@Test
+	@SneakyThrows
+	public void exceptionIsSharedWithWaiters() {
+		SingleFlight<String, String> flight = new SingleFlight<>();
+		CountDownLatch release = new CountDownLatch(1);
+
+		List<Future<String>> results = new ArrayList<>();
+		for (int i = 0; i < CALLERS; i++) {
+			results.add(executor.submit(() -> flight.execute("key", () -> {
+				await(release);
+				throw new IllegalStateException("boom");
+			})));
+		}
+		awaitShared(flight, CALLERS - 1);
+		release.countDown();
+
+		for (Future<String> result : results) {
+			Exception e = Assertions.assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+			Assertions.assertInstanceOf(IllegalStateException.class, e.getCause());
+		}
+		Assertions.assertEquals(1, flight.getExecutedCount());
+		Assertions.assertEquals(0, flight.getInFlightCount());
+	}
+
+	@Test
+	public void completedCallsAreNotCached() {
+		SingleFlight<String, Integer> flight = new SingleFlight<>();
+		AtomicInteger invocations = new AtomicInteger();
+
+		Assertions.assertEquals(1, flight.execute("key", invocations::incrementAndGet));
+		Assertions.assertEquals(2, flight.execute("key", invocations::incrementAndGet));
+		Assertions.assertEquals(1, flight.execute("other", () -> 1));
+		Assertions.assertEquals(3, flight.getExecutedCount());
+		Assertions.assertEquals(0, flight.getSharedCount());
+	}
+
+	@Test
+	@SneakyThrows
+	public void callsAfterForgetDoNotJoinEarlierFlight() {
+		SingleFlight<String, String> flight = new SingleFlight<>();
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch started = new CountDownLatch(1);
+
+		// 写入前发起的 GET 仍在进行
+		Future<String> stale = executor.submit(() -> flight.execute("key", () -> {
+			started.countDown();
+			await(release);
+			return "old";
+		}));
+		Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+		// 写入返回后清除合并，之后的读取重新执行
+		flight.forget("key");
+		Assertions.assertEquals("new", flight.execute("key", () -> "new"));
+		Assertions.assertEquals(0, flight.getSharedCount());
+
+		release.countDown();
+		Assertions.assertEquals("old", stale.get(5, TimeUnit.SECONDS));
+		Assertions.assertEquals(2, flight.getExecutedCount());
+		Assertions.assertEquals(0, flight.getInFlightCount());
+	}
+
+	@SneakyThrows
+	private static void awaitShared(SingleFlight<?, ?> flight, long expected) {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (flight.getSharedCount() < expected) {
+			Assertions.assertTrue(System.nanoTime() < deadline, "waiters did not join in time");
+			Thread.sleep(1);
+		}
+	}
+
+	@SneakyThrows
+	private static void await(CountDownLatch latch) {
+		latch.await(5, TimeUnit.SECONDS);
+	}
+
+}